@@ -0,0 +1,39 @@
+package playwriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Represents helpers to manage the files written by the benchmarks.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class BenchmarkFiles {
+
+  /**
+   * Private constructor.
+   */
+  private BenchmarkFiles() {
+  }
+
+  /**
+   * Deletes a directory and all its content.
+   *
+   * @param dir Directory to delete.
+   * @throws IOException if a file could not be deleted.
+   */
+  public static void delete(Path dir) throws IOException {
+    List<Path> paths;
+    try (Stream<Path> files = Files.walk(dir)) {
+      paths = files.sorted(Comparator.reverseOrder()).toList();
+    }
+    for (Path path : paths) {
+      Files.delete(path);
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package playwriter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Represents the entry point of the benchmarks. This runs JMH with the given command-line options
+ * and the GC profiler, then prints the bytes allocated per source line of each benchmark run on a
+ * generated play.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class BenchmarkRunner {
+
+  /**
+   * Private constructor.
+   */
+  private BenchmarkRunner() {
+  }
+
+  /**
+   * Main function.
+   *
+   * @param args JMH command-line options.
+   * @throws CommandLineOptionException if the options are invalid.
+   * @throws RunnerException            if a benchmark failed.
+   * @throws IOException                if the benchmark list could not be read.
+   */
+  public static void main(String[] args)
+      throws CommandLineOptionException, RunnerException, IOException {
+    CommandLineOptions cmdOptions = new CommandLineOptions(args);
+    if (cmdOptions.shouldHelp() || cmdOptions.shouldList() || cmdOptions.shouldListProfilers()
+        || cmdOptions.shouldListResultFormats()) {
+      org.openjdk.jmh.Main.main(args);
+      return;
+    }
+
+    Options options = new OptionsBuilder().parent(cmdOptions).addProfiler(GCProfiler.class)
+        .build();
+    Collection<RunResult> results = new Runner(options).run();
+
+    System.out.println();
+    System.out.println("Allocations per source line:");
+    for (RunResult result : results) {
+      String size = result.getParams().getParam("size");
+      Result<?> allocated = findAllocationRate(result.getAggregatedResult().getSecondaryResults());
+      if (size == null || allocated == null) {
+        continue;
+      }
+
+      int lines = PlaySources.getLineCount(PlaySize.valueOf(size));
+      System.out.printf("  %-60s %-6s %12.1f B/line%n", result.getParams().getBenchmark(), size,
+          allocated.getScore() / lines);
+    }
+  }
+
+  /**
+   * Finds the normalized allocation rate among the secondary results of a run.
+   *
+   * @param results Secondary results.
+   * @return Bytes allocated per benchmark operation, or <code>null</code> if not profiled.
+   */
+  private static Result<?> findAllocationRate(Map<String, Result> results) {
+    for (Map.Entry<String, Result> entry : results.entrySet()) {
+      if (entry.getKey().endsWith("gc.alloc.rate.norm")) {
+        return entry.getValue();
+      }
+    }
+    return null;
+  }
+}
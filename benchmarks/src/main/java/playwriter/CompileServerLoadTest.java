@@ -0,0 +1,157 @@
+package playwriter;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Represents the load test of the {@link CompileServer}. A number of concurrent clients, each on
+ * its own virtual thread, post a generated play over and over to a server on localhost, then the
+ * throughput and the latency percentiles of the successful requests are printed. Without a URL, a
+ * server is started in this JVM on a free port.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class CompileServerLoadTest {
+  private static final int WARMUP_REQUESTS = 20;
+
+  /**
+   * Private constructor.
+   */
+  private CompileServerLoadTest() {
+  }
+
+  /**
+   * Main function.
+   *
+   * @param args Number of concurrent clients, total number of requests, and optionally the
+   *             {@link PlaySize} of the play and the URL of a running server.
+   * @throws Exception if the play could not be generated, or the server could not be started.
+   */
+  public static void main(String[] args) throws Exception {
+    if (args.length < 2) {
+      System.err.println("Usage: CompileServerLoadTest <clients> <requests> [size] [url]");
+      System.exit(2);
+    }
+    final int clients = Integer.parseInt(args[0]);
+    final int requests = Integer.parseInt(args[1]);
+    final PlaySize size = (args.length > 2) ? PlaySize.valueOf(args[2].toUpperCase())
+        : PlaySize.SMALL;
+
+    CompileServer server = null;
+    URI uri;
+    if (args.length > 3) {
+      uri = URI.create(args[3]);
+    } else {
+      server = new CompileServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+          Runtime.getRuntime().availableProcessors());
+      server.start();
+      uri = URI.create("http://localhost:" + server.getPort() + CompileServer.PATH);
+    }
+
+    Path dir = Files.createTempDirectory("playwriter-load");
+    try (HttpClient client = HttpClient.newBuilder()
+        .executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+      HttpRequest request = HttpRequest.newBuilder(uri)
+          .header("Content-Type", "text/plain; charset=utf-8")
+          .POST(HttpRequest.BodyPublishers.ofFile(PlaySources.writePlainText(size, dir)))
+          .build();
+
+      run(client, request, Math.min(clients, WARMUP_REQUESTS), WARMUP_REQUESTS);
+      System.out.printf("%d clients, %d requests of a %s play to %s%n", clients, requests, size,
+          uri);
+      long start = System.nanoTime();
+      List<Long> latencies = run(client, request, clients, requests);
+      double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+      printReport(latencies, requests, seconds);
+    } finally {
+      BenchmarkFiles.delete(dir);
+      if (server != null) {
+        server.stop();
+      }
+    }
+  }
+
+  /**
+   * Sends requests from concurrent clients, each sending its next request once the previous one
+   * is answered.
+   *
+   * @param client   HTTP client.
+   * @param request  Request to send.
+   * @param clients  Number of concurrent clients.
+   * @param requests Total number of requests.
+   * @return Latencies of the successful requests, in nanoseconds.
+   * @throws InterruptedException if interrupted while waiting for the clients.
+   */
+  private static List<Long> run(HttpClient client, HttpRequest request, int clients,
+                                int requests) throws InterruptedException {
+    List<Long> latencies = Collections.synchronizedList(new ArrayList<>(requests));
+    AtomicInteger remaining = new AtomicInteger(requests);
+
+    try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < clients; ++i) {
+        threads.execute(() -> {
+          while (remaining.getAndDecrement() > 0) {
+            final long start = System.nanoTime();
+            try {
+              HttpResponse<byte[]> response =
+                  client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+              if (response.statusCode() == 200) {
+                latencies.add(System.nanoTime() - start);
+              }
+            } catch (Exception e) {
+              // Counted as failed
+            }
+          }
+        });
+      }
+    }
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+    return latencies;
+  }
+
+  /**
+   * Prints the throughput and latency percentiles of a run.
+   *
+   * @param latencies Latencies of the successful requests, in nanoseconds.
+   * @param requests  Total number of requests.
+   * @param seconds   Wall time of the run, in seconds.
+   */
+  private static void printReport(List<Long> latencies, int requests, double seconds) {
+    List<Long> sorted = new ArrayList<>(latencies);
+    Collections.sort(sorted);
+    System.out.printf("%d ok, %d failed in %.2f s: %.1f requests/s%n", sorted.size(),
+        requests - sorted.size(), seconds, sorted.size() / seconds);
+    if (!sorted.isEmpty()) {
+      System.out.printf("latency p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+          getPercentile(sorted, 50) / 1_000_000.0, getPercentile(sorted, 99) / 1_000_000.0,
+          sorted.get(sorted.size() - 1) / 1_000_000.0);
+    }
+  }
+
+  /**
+   * Gets a percentile of sorted values, by the nearest-rank method.
+   *
+   * @param sorted     Values, in increasing order.
+   * @param percentile Percentile, between <code>1</code> and <code>100</code>.
+   * @return Value of the percentile.
+   */
+  private static long getPercentile(List<Long> sorted, int percentile) {
+    final int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+    return sorted.get(Math.max(rank, 1) - 1);
+  }
+}
@@ -0,0 +1,143 @@
+package playwriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Represents the check that concurrent compilations in the same process never mix up their
+ * diagnostics. Plays are generated, most of them with an invalid line at a random position, then
+ * compiled one at a time to record the diagnostic of each of them. They are then all compiled at
+ * once on a pool of workers, and every diagnostic must be the same as the one recorded, with the
+ * line of the invalid line.
+ *
+ * <p>The exit code is non-zero if any diagnostic differs.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class ConcurrencyCheck {
+  private static final long SEED = 20230101L;
+  private static final int DEFAULT_PLAYS = 200;
+  private static final int DEFAULT_WORKERS = 16;
+  private static final int VALID_PLAY_RATIO = 4;
+  private static final String INVALID_LINE = "SCENE 1000";
+
+  /**
+   * Private constructor.
+   */
+  private ConcurrencyCheck() {
+  }
+
+  /**
+   * Main function.
+   *
+   * @param args Number of plays and of workers, 200 and 16 if not given.
+   * @throws Exception if a play could not be generated, or a worker was interrupted.
+   */
+  public static void main(String[] args) throws Exception {
+    final int playCount = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PLAYS;
+    final int workers = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_WORKERS;
+    Path dir = Files.createTempDirectory("playwriter-concurrency");
+    int mismatches = 0;
+    try {
+      Random random = new Random(SEED);
+      Path[] plays = new Path[playCount];
+      int[] invalidLines = new int[playCount];
+      for (int i = 0; i < playCount; ++i) {
+        plays[i] = dir.resolve("play" + i + ".play");
+        invalidLines[i] = generate(plays[i], SEED + i, random, i % VALID_PLAY_RATIO != 0);
+      }
+
+      String[] expected = new String[playCount];
+      for (int i = 0; i < playCount; ++i) {
+        expected[i] = compile(plays[i]);
+      }
+
+      ExecutorService pool = Executors.newFixedThreadPool(workers);
+      List<Future<String>> results = new ArrayList<>(playCount);
+      long start = System.nanoTime();
+      try {
+        for (Path play : plays) {
+          results.add(pool.submit(() -> compile(play)));
+        }
+        for (int i = 0; i < playCount; ++i) {
+          final String actual = results.get(i).get();
+          final String positioned = (invalidLines[i] == 0) ? null
+              : "Error at line " + invalidLines[i] + ": ";
+          final boolean atInvalidLine = (positioned == null) ? actual == null
+              : actual != null && actual.startsWith(positioned);
+          if (!Objects.equals(actual, expected[i]) || !atInvalidLine) {
+            System.out.println("MISMATCH " + plays[i].getFileName() + ": expected <" + expected[i]
+                + ">, got <" + actual + ">");
+            ++mismatches;
+          }
+        }
+      } finally {
+        pool.shutdownNow();
+      }
+      System.out.printf("%d plays on %d workers in %.1f ms, %d mismatched diagnostics%n",
+          playCount, workers, (System.nanoTime() - start) / 1_000_000.0, mismatches);
+    } finally {
+      BenchmarkFiles.delete(dir);
+    }
+
+    System.exit(mismatches == 0 ? 0 : 1);
+  }
+
+  /**
+   * Generates a small play and writes it as plain text, with an invalid line if asked to. The
+   * invalid line jumps to a scene number no act reaches, so the play always fails on it.
+   *
+   * @param path    Play file.
+   * @param seed    Seed of the play.
+   * @param random  Random generator choosing the position of the invalid line.
+   * @param invalid <code>true</code> to add an invalid line, <code>false</code> otherwise.
+   * @return Line number of the invalid line, or <code>0</code> if the play is valid.
+   * @throws IOException if the file could not be written.
+   */
+  private static int generate(Path path, long seed, Random random, boolean invalid)
+      throws IOException {
+    List<String> lines = new CorpusGenerator(seed, 6, 2, 3, 200, 40).generate();
+    int invalidLine = 0;
+    if (invalid) {
+      final int begin = lines.indexOf("BEGIN");
+      // Anywhere after the beginning of the play, and before its end
+      final int index = begin + 1 + random.nextInt(lines.size() - begin - 1);
+      lines.add(index, INVALID_LINE);
+      invalidLine = index + 1;
+    }
+    CorpusGenerator.writePlainText(lines, path);
+    return invalidLine;
+  }
+
+  /**
+   * Compiles a play to a PDF file next to it.
+   *
+   * @param play Play file.
+   * @return Diagnostic of the play, or <code>null</code> if it compiled.
+   * @throws IOException if reading or writing failed.
+   */
+  private static String compile(Path play) throws IOException {
+    try {
+      FileParser fp = new FileParser(play.toString(), play + ".pdf", true);
+      try {
+        fp.parseAll();
+        fp.output();
+      } catch (PlayCompileTimeError e) {
+        fp.abort();
+        throw e;
+      }
+      return null;
+    } catch (PlayCompileTimeError e) {
+      return e.getMessage();
+    }
+  }
+}
@@ -0,0 +1,314 @@
+package playwriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+
+/**
+ * Represents a seeded generator of large, valid plays. Generated plays use every directive
+ * supported by {@link FileParser}: headers and options, 'ONSTAGE', 'ENTER' and 'EXIT' with or
+ * without 'ALL EXCEPT', 'OFFSTAGE' speeches, '&gt;' indented speeches, ':' continuations, stage
+ * directions, 'NEWPAGE', long monologues, and 'CURTAIN'. The same seed always gives the same play.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class CorpusGenerator {
+  private static final String[] SYLLABLES = {
+      "al", "ban", "cor", "dun", "el", "fal", "gar", "hor", "is", "jul", "kel", "lor", "mar",
+      "nor", "os", "per", "quin", "ros", "sil", "tor", "ul", "ver", "wil", "yor", "zan"
+  };
+  private static final String[] WORDS = {
+      "the", "king", "is", "dead", "and", "yet", "we", "speak", "of", "love", "night", "sword",
+      "crown", "ghost", "honour", "madness", "method", "garden", "river", "storm", "blood", "heart",
+      "tomorrow", "never", "always", "sweet", "bitter", "noble", "fool", "light", "shadow",
+      "élan", "château", "naïve", "fiancée"
+  };
+  private final Random random;
+  private final int castSize;
+  private final int acts;
+  private final int scenesPerAct;
+  private final int linesPerScene;
+  private final int monologueWords;
+  private final String[] names;
+
+  /**
+   * Constructor.
+   *
+   * @param seed           Random seed.
+   * @param characterCount Number of characters in the cast.
+   * @param actCount       Number of acts.
+   * @param sceneCount     Number of scenes per act.
+   * @param lineCount      Approximate total number of lines.
+   * @param monologueSize  Number of words of the longest monologues.
+   */
+  public CorpusGenerator(long seed, int characterCount, int actCount, int sceneCount,
+                         int lineCount, int monologueSize) {
+    if (characterCount < 2 || actCount < 1 || sceneCount < 1) {
+      throw new IllegalArgumentException("Error: a play needs two characters, an act and a scene.");
+    }
+    random = new Random(seed);
+    castSize = characterCount;
+    acts = actCount;
+    scenesPerAct = sceneCount;
+    linesPerScene = Math.max(lineCount / (actCount * sceneCount), 8);
+    monologueWords = monologueSize;
+    names = new String[castSize];
+    for (int i = 0; i < castSize; ++i) {
+      names[i] = (SYLLABLES[i % SYLLABLES.length] + SYLLABLES[(i / SYLLABLES.length + 7)
+          % SYLLABLES.length] + (i < SYLLABLES.length ? "" : String.valueOf(i))).toUpperCase();
+    }
+  }
+
+  /**
+   * Generates a play as plain text, and as a DOCX document with one paragraph per line.
+   *
+   * @param args Output directory, seed, cast size, acts, scenes per act, lines and monologue
+   *             words.
+   * @throws IOException if a file could not be written.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 7) {
+      System.err.println("Usage: CorpusGenerator <dir> <seed> <cast> <acts> <scenes per act> "
+          + "<lines> <monologue words>");
+      System.exit(2);
+    }
+
+    Path dir = Path.of(args[0]);
+    CorpusGenerator generator = new CorpusGenerator(Long.parseLong(args[1]),
+        Integer.parseInt(args[2]), Integer.parseInt(args[3]), Integer.parseInt(args[4]),
+        Integer.parseInt(args[5]), Integer.parseInt(args[6]));
+    List<String> lines = generator.generate();
+    writePlainText(lines, dir.resolve("generated.play"));
+    writeDocx(lines, dir.resolve("generated.docx"));
+  }
+
+  /**
+   * Writes lines as a plain text play.
+   *
+   * @param lines Lines of the play.
+   * @param path  Path to write to.
+   * @throws IOException if the file could not be written.
+   */
+  public static void writePlainText(List<String> lines, Path path) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+      for (String line : lines) {
+        writer.write(line);
+        writer.newLine();
+      }
+    }
+  }
+
+  /**
+   * Writes lines as a DOCX play, with one paragraph per line.
+   *
+   * @param lines Lines of the play.
+   * @param path  Path to write to.
+   * @throws IOException if the file could not be written.
+   */
+  public static void writeDocx(List<String> lines, Path path) throws IOException {
+    try (XWPFDocument document = new XWPFDocument();
+         OutputStream out = Files.newOutputStream(path)) {
+      for (String line : lines) {
+        document.createParagraph().createRun().setText(line);
+      }
+      document.write(out);
+    }
+  }
+
+  /**
+   * Generates the lines of the play.
+   *
+   * @return Lines of the play.
+   */
+  public List<String> generate() {
+    List<String> lines = new ArrayList<>();
+    lines.add("TITLE: Generated Play");
+    lines.add("AUTHOR: Corpus Generator");
+    lines.add("OPTIONS:");
+    lines.add("- TEXT SIZE: 10");
+    lines.add("- SPEECH PADDING: 8");
+    lines.add("CHARACTERS:");
+    for (int i = 0; i < castSize; ++i) {
+      lines.add(i % 3 == 0 ? "- " + names[i] : "- " + names[i] + ": " + sentence(6));
+    }
+    lines.add("BEGIN");
+    lines.add("* " + sentence(12));
+
+    for (int act = 1; act <= acts; ++act) {
+      lines.add(random.nextBoolean() ? "ACT " + act : "ACT " + act + ": " + sentence(4));
+      BitSet onStage = new BitSet(castSize);
+      for (int scene = 1; scene <= scenesPerAct; ++scene) {
+        generateScene(lines, scene, onStage);
+      }
+      lines.add("CURTAIN");
+      if (act < acts && random.nextInt(4) == 0) {
+        lines.add("* " + sentence(8));
+      }
+    }
+
+    lines.add("THE END");
+    return lines;
+  }
+
+  /**
+   * Generates a scene.
+   *
+   * @param lines   Lines of the play.
+   * @param scene   Scene number.
+   * @param onStage Characters on stage, updated by the scene.
+   */
+  private void generateScene(List<String> lines, int scene, BitSet onStage) {
+    lines.add(random.nextBoolean() ? "SCENE " + scene : "SCENE " + scene + ": " + sentence(3));
+
+    if (scene == 1) {
+      // Nobody is on stage: everybody but a few comes on, then the others join
+      int[] excluded = pick(onStage, false, Math.min(3, castSize - 1));
+      lines.add((random.nextBoolean() ? "ONSTAGE" : "ENTER") + " ALL EXCEPT " + list(excluded));
+      onStage.set(0, castSize);
+      for (int id : excluded) {
+        onStage.clear(id);
+      }
+      lines.add("ENTER " + list(excluded));
+      for (int id : excluded) {
+        onStage.set(id);
+      }
+
+      // Everybody is on stage: everybody but a few leaves
+      int[] kept = pick(onStage, true, Math.min(4, castSize - 1));
+      lines.add("EXIT ALL EXCEPT " + list(kept));
+      onStage.clear();
+      for (int id : kept) {
+        onStage.set(id);
+      }
+    } else if (onStage.cardinality() < castSize && random.nextBoolean()) {
+      int[] entering = pick(onStage, false, 1 + random.nextInt(2));
+      lines.add("ONSTAGE " + list(entering));
+      for (int id : entering) {
+        onStage.set(id);
+      }
+    }
+
+    int previous = -1;
+    boolean lastIsSpeech = false;
+    for (int i = 0; i < linesPerScene; ++i) {
+      int roll = random.nextInt(100);
+
+      if (roll < 5 && onStage.cardinality() < castSize) {
+        int[] entering = pick(onStage, false, 1 + random.nextInt(3));
+        lines.add("ENTER " + list(entering));
+        for (int id : entering) {
+          onStage.set(id);
+        }
+        previous = -1;
+        lastIsSpeech = false;
+      } else if (roll < 9 && onStage.cardinality() > 2) {
+        int[] leaving = pick(onStage, true, 1 + random.nextInt(Math.min(2, onStage.cardinality()
+            - 2)));
+        lines.add("EXIT " + list(leaving));
+        for (int id : leaving) {
+          onStage.clear(id);
+        }
+        previous = -1;
+        lastIsSpeech = false;
+      } else if (roll < 14) {
+        lines.add("* " + sentence(5 + random.nextInt(15)));
+        lastIsSpeech = false;
+      } else if (roll < 15) {
+        lines.add("NEWPAGE");
+      } else if (roll < 19 && onStage.cardinality() < castSize) {
+        int speaker = pick(onStage, false, 1)[0];
+        lines.add("OFFSTAGE " + names[speaker] + ": " + sentence(4 + random.nextInt(10)));
+        previous = speaker;
+        lastIsSpeech = true;
+      } else if (roll < 24 && previous != -1) {
+        lines.add(": " + sentence(4 + random.nextInt(20)));
+        lastIsSpeech = true;
+      } else {
+        int speaker = pick(onStage, true, 1)[0];
+        if (roll < 32 && lastIsSpeech && speaker != previous) {
+          lines.add(names[speaker] + " > " + sentence(2 + random.nextInt(6)));
+        } else if (roll == 99) {
+          lines.add(names[speaker] + ": " + sentence(monologueWords));
+        } else {
+          lines.add(names[speaker] + ": " + sentence(4 + random.nextInt(30)));
+        }
+        previous = speaker;
+        lastIsSpeech = true;
+      }
+    }
+
+    // Each scene must have at least one speech
+    int speaker = pick(onStage, true, 1)[0];
+    lines.add(names[speaker] + ": " + sentence(8));
+  }
+
+  /**
+   * Picks distinct random characters, either among those on stage or among those off stage.
+   *
+   * @param onStage Characters on stage.
+   * @param entered <code>true</code> to pick characters on stage, <code>false</code> otherwise.
+   * @param count   Number of characters to pick, at most the number of candidates.
+   * @return Ids of the picked characters.
+   */
+  private int[] pick(BitSet onStage, boolean entered, int count) {
+    int candidates = entered ? onStage.cardinality() : castSize - onStage.cardinality();
+    count = Math.min(count, candidates);
+    int[] picked = new int[count];
+    BitSet taken = new BitSet(castSize);
+
+    for (int i = 0; i < count; ++i) {
+      int id;
+      do {
+        id = random.nextInt(castSize);
+      } while (onStage.get(id) != entered || taken.get(id));
+      taken.set(id);
+      picked[i] = id;
+    }
+    return picked;
+  }
+
+  /**
+   * Joins character names with commas.
+   *
+   * @param ids Character ids.
+   * @return Comma-separated names, in mixed case.
+   */
+  private String list(int[] ids) {
+    StringBuilder builder = new StringBuilder();
+    for (int id : ids) {
+      if (builder.length() > 0) {
+        builder.append(", ");
+      }
+      String name = names[id];
+      builder.append(random.nextBoolean() ? name : name.toLowerCase());
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Generates a random sentence.
+   *
+   * @param wordCount Number of words.
+   * @return Sentence.
+   */
+  private String sentence(int wordCount) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < wordCount; ++i) {
+      if (i > 0) {
+        builder.append(random.nextInt(12) == 0 ? ",  " : " ");
+      }
+      builder.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+    builder.setCharAt(0, java.lang.Character.toUpperCase(builder.charAt(0)));
+    return builder.append('.').toString();
+  }
+}
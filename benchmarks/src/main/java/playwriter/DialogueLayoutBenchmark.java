@@ -0,0 +1,154 @@
+package playwriter;
+
+import static com.itextpdf.io.font.constants.StandardFonts.TIMES_BOLD;
+import static com.itextpdf.io.font.constants.StandardFonts.TIMES_ITALIC;
+import static com.itextpdf.io.font.constants.StandardFonts.TIMES_ROMAN;
+import static com.itextpdf.kernel.font.PdfFontFactory.createFont;
+import static com.itextpdf.layout.borders.Border.NO_BORDER;
+import static com.itextpdf.layout.properties.TextAlignment.JUSTIFIED;
+import static com.itextpdf.layout.properties.TextAlignment.RIGHT;
+
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.Style;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.element.Text;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the layout of the speeches of a whole play with {@link SpeechRenderer}, the way
+ * {@link PdfRenderer} writes them, against the previous two-column {@link Table} per speech. Both
+ * write to a discarded output, so only the layout and the PDF serialisation are measured.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DialogueLayoutBenchmark {
+  private static final int TEXT_SIZE = 12;
+  private static final int SPEECH_PADDING = 20;
+  private static final float MARGIN = 2;
+  @Param({"100000"})
+  private int speeches;
+  private List<String> cast;
+  private String speech;
+
+  /**
+   * Gets the benchmark input.
+   */
+  @Setup
+  public void setup() {
+    cast = PlaySources.getCast();
+    speech = PlaySources.getSpeech();
+  }
+
+  /**
+   * Lays out all speeches as hanging paragraphs, with the names drawn in the gutter.
+   *
+   * @throws IOException if the fonts could not be loaded.
+   */
+  @Benchmark
+  public void speechRenderer() throws IOException {
+    PdfFont normalFont = createFont(TIMES_ROMAN);
+    PdfFont boldFont = createFont(TIMES_BOLD);
+    PdfFont italicFont = createFont(TIMES_ITALIC);
+    Style normalFontStyle = new Style().setFont(normalFont);
+    Document document = openDocument();
+    float gutter = getGutterWidth(boldFont, italicFont);
+    float[] nameOffsets = new float[cast.size()];
+    for (int id = 0; id < nameOffsets.length; ++id) {
+      nameOffsets[id] = gutter - boldFont.getWidth(cast.get(id), TEXT_SIZE);
+    }
+
+    for (int i = 0; i < speeches; ++i) {
+      Paragraph p = new Paragraph(new Text(speech).addStyle(normalFontStyle))
+          .setFontSize(TEXT_SIZE).setMargins(MARGIN, MARGIN, MARGIN, gutter + SPEECH_PADDING)
+          .setTextAlignment(JUSTIFIED);
+      final int id = i % cast.size();
+      p.setNextRenderer(new SpeechRenderer(p, nameOffsets[id], boldFont, cast.get(id),
+          italicFont, null));
+      document.add(p);
+    }
+    document.close();
+  }
+
+  /**
+   * Lays out all speeches as two-column tables, as it was done before {@link SpeechRenderer}.
+   *
+   * @throws IOException if the fonts could not be loaded.
+   */
+  @Benchmark
+  public void table() throws IOException {
+    PdfFont normalFont = createFont(TIMES_ROMAN);
+    PdfFont boldFont = createFont(TIMES_BOLD);
+    PdfFont italicFont = createFont(TIMES_ITALIC);
+    Style normalFontStyle = new Style().setFont(normalFont);
+    Style boldFontStyle = new Style().setFont(boldFont);
+    Document document = openDocument();
+    float gutter = getGutterWidth(boldFont, italicFont);
+    float textWidth = document.getPdfDocument().getDefaultPageSize().getWidth()
+        - document.getLeftMargin() - document.getRightMargin() - gutter;
+
+    for (int i = 0; i < speeches; ++i) {
+      Table table = new Table(new float[] {gutter, textWidth});
+      Paragraph name = new Paragraph(new Text(cast.get(i % cast.size())).addStyle(boldFontStyle))
+          .setFontSize(TEXT_SIZE);
+      Paragraph text = new Paragraph(new Text(speech).addStyle(normalFontStyle))
+          .setFontSize(TEXT_SIZE);
+      table.addCell(new Cell().setPaddingLeft(0).setPaddingRight(0).setBorder(NO_BORDER)
+          .add(name).setTextAlignment(RIGHT));
+      table.addCell(new Cell().setPaddingLeft(SPEECH_PADDING).setBorder(NO_BORDER).add(text)
+          .setTextAlignment(JUSTIFIED));
+      document.add(table);
+    }
+    document.close();
+  }
+
+  /**
+   * Opens a document writing to a discarded output.
+   *
+   * @return Document.
+   */
+  private static Document openDocument() {
+    return new Document(new PdfDocument(new PdfWriter(OutputStream.nullOutputStream())));
+  }
+
+  /**
+   * Computes the width of the gutter, the way {@link PdfRenderer} does.
+   *
+   * @param boldFont   Font of the names.
+   * @param italicFont Font of the offstage note.
+   * @return Gutter width.
+   */
+  private float getGutterWidth(PdfFont boldFont, PdfFont italicFont) {
+    float gutter = 0;
+    for (String name : cast) {
+      gutter = Math.max(gutter, (float) Math.ceil(boldFont.getWidth(name, TEXT_SIZE)
+          + italicFont.getWidth(" (offstage)", TEXT_SIZE)));
+    }
+    return gutter;
+  }
+}
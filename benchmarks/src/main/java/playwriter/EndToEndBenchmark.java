@@ -0,0 +1,102 @@
+package playwriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the compilation of a whole play to a PDF file, from plain text and from DOCX, in every
+ * {@link RenderMode}.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class EndToEndBenchmark {
+  @Param({"SMALL", "MEDIUM", "HUGE"})
+  private PlaySize size;
+  @Param({"PIPELINED", "SEQUENTIAL", "PARALLEL_ACTS"})
+  private RenderMode mode;
+  private Path dir;
+  private Path input;
+  private Path docx;
+  private Path output;
+
+  /**
+   * Writes the benchmark input.
+   *
+   * @throws IOException if the input could not be written.
+   */
+  @Setup
+  public void setup() throws IOException {
+    dir = Files.createTempDirectory("playwriter-bench");
+    input = PlaySources.writePlainText(size, dir);
+    docx = PlaySources.writeDocx(size, dir);
+    output = dir.resolve("output.pdf");
+  }
+
+  /**
+   * Deletes the benchmark input and output.
+   *
+   * @throws IOException if the files could not be deleted.
+   */
+  @TearDown
+  public void tearDown() throws IOException {
+    BenchmarkFiles.delete(dir);
+  }
+
+  /**
+   * Compiles the plain text play.
+   *
+   * @throws IOException          if reading or writing failed.
+   * @throws PlayCompileTimeError if the play is invalid.
+   */
+  @Benchmark
+  public void compile() throws IOException, PlayCompileTimeError {
+    compile(input, true);
+  }
+
+  /**
+   * Compiles the DOCX play.
+   *
+   * @throws IOException          if reading or writing failed.
+   * @throws PlayCompileTimeError if the play is invalid.
+   */
+  @Benchmark
+  public void compileDocx() throws IOException, PlayCompileTimeError {
+    compile(docx, false);
+  }
+
+  /**
+   * Compiles a play.
+   *
+   * @param file        Play file.
+   * @param isPlainText <code>true</code> if the file is plain text, <code>false</code> otherwise.
+   * @throws IOException          if reading or writing failed.
+   * @throws PlayCompileTimeError if the play is invalid.
+   */
+  private void compile(Path file, boolean isPlainText) throws IOException, PlayCompileTimeError {
+    FileParser fp = new FileParser(file.toString(), output.toString(), isPlainText, null,
+        mode);
+    fp.parseAll();
+    fp.output();
+  }
+}
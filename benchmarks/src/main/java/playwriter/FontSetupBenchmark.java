@@ -0,0 +1,102 @@
+package playwriter;
+
+import static com.itextpdf.io.font.constants.StandardFonts.TIMES_BOLD;
+import static com.itextpdf.io.font.constants.StandardFonts.TIMES_ITALIC;
+import static com.itextpdf.io.font.constants.StandardFonts.TIMES_ROMAN;
+import static com.itextpdf.kernel.font.PdfFontFactory.createFont;
+
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.Style;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Text;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the per-document setup of the fonts of many small plays with {@link SharedFont}, the
+ * way {@link PdfRenderer} does it, against creating every font for each document. Each document
+ * gets a single line of text, written to a discarded output, and measures its title.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FontSetupBenchmark {
+  private static final int TEXT_SIZE = 12;
+  private static final String TITLE = "Small Play";
+  @Param({"1000"})
+  private int documents;
+
+  /**
+   * Sets up the documents with handles on the shared fonts.
+   *
+   * @return Total width of the titles, so that the measurements are not removed.
+   * @throws IOException if the fonts could not be loaded.
+   */
+  @Benchmark
+  public float sharedFonts() throws IOException {
+    float width = 0;
+    for (int i = 0; i < documents; ++i) {
+      SharedFont normal = SharedFont.get(TIMES_ROMAN);
+      SharedFont bold = SharedFont.get(TIMES_BOLD);
+      SharedFont italic = SharedFont.get(TIMES_ITALIC);
+      writeDocument(normal.createHandle(), bold.createHandle(), italic.createHandle());
+      width += bold.getWidths().getWidth(TITLE, TEXT_SIZE);
+    }
+    return width;
+  }
+
+  /**
+   * Sets up the documents with fonts created for each of them.
+   *
+   * @return Total width of the titles, so that the measurements are not removed.
+   * @throws IOException if the fonts could not be loaded.
+   */
+  @Benchmark
+  public float perDocumentFonts() throws IOException {
+    float width = 0;
+    for (int i = 0; i < documents; ++i) {
+      PdfFont bold = createFont(TIMES_BOLD);
+      writeDocument(createFont(TIMES_ROMAN), bold, createFont(TIMES_ITALIC));
+      width += bold.getWidth(TITLE, TEXT_SIZE);
+    }
+    return width;
+  }
+
+  /**
+   * Writes a document of a single line with the fonts.
+   *
+   * @param normalFont Normal font.
+   * @param boldFont   Bold font.
+   * @param italicFont Italic font.
+   */
+  private static void writeDocument(PdfFont normalFont, PdfFont boldFont, PdfFont italicFont) {
+    Document document = new Document(
+        new PdfDocument(new PdfWriter(OutputStream.nullOutputStream())));
+    document.add(new Paragraph()
+        .add(new Text(TITLE).addStyle(new Style().setFont(boldFont)))
+        .add(new Text(" by ").addStyle(new Style().setFont(normalFont)))
+        .add(new Text("PlayWriter").addStyle(new Style().setFont(italicFont)))
+        .setFontSize(TEXT_SIZE));
+    document.close();
+  }
+}
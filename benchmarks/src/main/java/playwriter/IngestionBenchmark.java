@@ -0,0 +1,99 @@
+package playwriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how fast source lines are read, through {@link FileParser}, without parsing them.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IngestionBenchmark {
+  @Param({"SMALL", "MEDIUM", "HUGE"})
+  private PlaySize size;
+  private Path dir;
+  private Path plainText;
+  private Path docx;
+
+  /**
+   * Writes the benchmark inputs.
+   *
+   * @throws IOException if the inputs could not be written.
+   */
+  @Setup
+  public void setup() throws IOException {
+    dir = Files.createTempDirectory("playwriter-bench");
+    plainText = PlaySources.writePlainText(size, dir);
+    docx = PlaySources.writeDocx(size, dir);
+  }
+
+  /**
+   * Deletes the benchmark inputs.
+   *
+   * @throws IOException if the inputs could not be deleted.
+   */
+  @TearDown
+  public void tearDown() throws IOException {
+    BenchmarkFiles.delete(dir);
+  }
+
+  /**
+   * Reads all lines of a plain text play.
+   *
+   * @return Number of lines read.
+   * @throws IOException if reading failed.
+   */
+  @Benchmark
+  public int plainText() throws IOException {
+    return readAll(new FileParser(plainText.toString(), true));
+  }
+
+  /**
+   * Reads all paragraphs of a DOCX play.
+   *
+   * @return Number of paragraphs read.
+   * @throws IOException if reading failed.
+   */
+  @Benchmark
+  public int docx() throws IOException {
+    return readAll(new FileParser(docx.toString(), false));
+  }
+
+  /**
+   * Reads all remaining lines of a file parser.
+   *
+   * @param fp File parser.
+   * @return Number of lines read.
+   * @throws IOException if reading failed.
+   */
+  private static int readAll(FileParser fp) throws IOException {
+    int count = 1;
+    while (fp.readNextLine() != null) {
+      ++count;
+    }
+    // Nothing is written when only checking, so this only closes the file
+    fp.abort();
+    return count;
+  }
+}
@@ -0,0 +1,105 @@
+package playwriter;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents the check of the layout of a monologue over several pages. A play where a single
+ * character speaks for a few thousand words is compiled in every render mode, and the name of the
+ * character must only be written in the gutter of the first page of the speech, as it was when
+ * speeches were laid out as tables.
+ *
+ * <p>The exit code is non-zero if the name is written on any other page, or if the speech does
+ * not span enough pages to check it.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class LayoutCheck {
+  private static final String SPEAKER = "ZORGLUB";
+  private static final int DEFAULT_WORDS = 6000;
+  private static final int MIN_SPEECH_PAGES = 3;
+
+  /**
+   * Private constructor.
+   */
+  private LayoutCheck() {
+  }
+
+  /**
+   * Main function.
+   *
+   * @param args Number of words of the monologue, 6,000 if not given.
+   * @throws Exception if the play could not be written or read back.
+   */
+  public static void main(String[] args) throws Exception {
+    final int words = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_WORDS;
+    Path dir = Files.createTempDirectory("playwriter-layout");
+    boolean passed = true;
+    try {
+      Path play = dir.resolve("monologue.play");
+      Path output = dir.resolve("monologue.pdf");
+      generate(play, words);
+
+      for (RenderMode mode : RenderMode.values()) {
+        FileParser fp = new FileParser(play.toString(), output.toString(), true, null, mode);
+        fp.parseAll();
+        fp.output();
+
+        List<Integer> namePages = new ArrayList<>();
+        int pageCount;
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(output.toString()))) {
+          pageCount = pdf.getNumberOfPages();
+          for (int page = 1; page <= pageCount; ++page) {
+            if (PdfTextExtractor.getTextFromPage(pdf.getPage(page)).contains(SPEAKER)) {
+              namePages.add(page);
+            }
+          }
+        }
+
+        // The title page, then the speech
+        final boolean modePassed = pageCount > MIN_SPEECH_PAGES && namePages.size() == 1;
+        System.out.printf("%-13s %3d pages, name on page(s) %s%s%n", mode, pageCount, namePages,
+            modePassed ? "" : "  FAILED");
+        passed &= modePassed;
+      }
+    } catch (IOException | PlayCompileTimeError e) {
+      System.out.println("FAILED: " + e);
+      passed = false;
+    } finally {
+      BenchmarkFiles.delete(dir);
+    }
+
+    System.exit(passed ? 0 : 1);
+  }
+
+  /**
+   * Generates a play made of a single monologue, and writes it as plain text.
+   *
+   * @param path  Play file.
+   * @param words Number of words of the monologue.
+   * @throws IOException if the file could not be written.
+   */
+  private static void generate(Path path, int words) throws IOException {
+    List<String> lines = new ArrayList<>();
+    lines.add("TITLE: The Monologue");
+    lines.add("AUTHOR: PlayWriter");
+    lines.add("CHARACTERS:");
+    lines.add("- " + SPEAKER);
+    lines.add("BEGIN");
+    lines.add("ACT 1");
+    lines.add("SCENE 1");
+    lines.add("ONSTAGE " + SPEAKER);
+    lines.add(SPEAKER + ": " + String.join(" ", Collections.nCopies(words, "word")));
+    lines.add("CURTAIN");
+    lines.add("THE END");
+    CorpusGenerator.writePlainText(lines, path);
+  }
+}
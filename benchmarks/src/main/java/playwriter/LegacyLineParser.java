@@ -1,18 +1,18 @@
 package playwriter;
 
 /**
- * Represents a line parser.
+ * Copy of the line parser used before {@link LineLexer}, kept to compare both.
  *
  * @author Nicolas Almerge
  * @since 1.0
  */
-public final class LineParser {
+public final class LegacyLineParser {
   private String line = "";
 
   /**
    * Constructor.
    */
-  public LineParser() {
+  public LegacyLineParser() {
   }
 
   /**
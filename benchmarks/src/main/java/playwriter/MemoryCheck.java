@@ -0,0 +1,159 @@
+package playwriter;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Represents the check that the heap needed to compile a play does not grow with its length. A
+ * short and a long play are generated, then compiled in turn while the live heap is sampled by
+ * collecting garbage at a fixed interval. Each flushed page leaves a few hundred bytes of
+ * cross-reference entries behind, so the peak live heap may only grow by a small bound per page
+ * between the two plays, far below the size of a page of layout.
+ *
+ * <p>Run it under a small fixed heap, such as <code>-Xmx64m</code>, so that a leak also shows as an
+ * {@link OutOfMemoryError}. The exit code is non-zero if the heap grows faster than the bound, or
+ * if a play could not be compiled.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class MemoryCheck {
+  private static final long SEED = 20230101L;
+  private static final int DEFAULT_PAGES = 5000;
+  private static final int LINES_PER_PAGE = 24;
+  private static final int SHORT_PLAY_DIVISOR = 5;
+  private static final long MAX_BYTES_PER_PAGE = 512;
+  private static final long SAMPLE_MILLIS = 200;
+  private static volatile boolean sampling = false;
+  private static volatile long peakHeap = 0;
+
+  /**
+   * Private constructor.
+   */
+  private MemoryCheck() {
+  }
+
+  /**
+   * Main function.
+   *
+   * @param args Approximate number of pages of the long play, 5,000 if not given.
+   * @throws Exception if a play could not be generated.
+   */
+  public static void main(String[] args) throws Exception {
+    final int pages = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PAGES;
+    Thread sampler = new Thread(MemoryCheck::sample, "heap-sampler");
+    sampler.setDaemon(true);
+    sampler.start();
+
+    Path dir = Files.createTempDirectory("playwriter-memory");
+    boolean passed = true;
+    try {
+      Path shortPlay = generate(dir.resolve("short.play"), pages / SHORT_PLAY_DIVISOR);
+      Path longPlay = generate(dir.resolve("long.play"), pages);
+      Path output = dir.resolve("output.pdf");
+
+      // Loads the classes and fonts, which are then shared by both measured compilations
+      compile(shortPlay, output);
+      System.out.printf("%-6s %9s %12s %16s%n", "play", "pages", "time (ms)", "peak live MB");
+      long[] shortRun = measure("short", shortPlay, output);
+      long[] longRun = measure("long", longPlay, output);
+
+      final double perPage = (double) (longRun[1] - shortRun[1]) / (longRun[0] - shortRun[0]);
+      passed = perPage <= MAX_BYTES_PER_PAGE;
+      System.out.printf("peak live heap growth: %.0f bytes/page (bound %d)%s%n", perPage,
+          MAX_BYTES_PER_PAGE, passed ? "" : "  GROWING");
+    } catch (IOException | PlayCompileTimeError | OutOfMemoryError e) {
+      System.out.println("FAILED: " + e);
+      passed = false;
+    } finally {
+      sampling = false;
+      BenchmarkFiles.delete(dir);
+    }
+
+    System.exit(passed ? 0 : 1);
+  }
+
+  /**
+   * Generates a play and writes it as plain text.
+   *
+   * @param path  Play file.
+   * @param pages Approximate number of pages.
+   * @return Play file.
+   * @throws IOException if the file could not be written.
+   */
+  private static Path generate(Path path, int pages) throws IOException {
+    CorpusGenerator.writePlainText(
+        new CorpusGenerator(SEED, 20, 5, 20, pages * LINES_PER_PAGE, 200).generate(), path);
+    return path;
+  }
+
+  /**
+   * Compiles a play while sampling the live heap, and prints the result.
+   *
+   * @param name   Name of the play, as printed.
+   * @param input  Play file.
+   * @param output Output PDF file.
+   * @return Number of pages of the PDF file, and peak live heap in bytes.
+   * @throws IOException          if reading or writing failed.
+   * @throws PlayCompileTimeError if the play is invalid.
+   */
+  private static long[] measure(String name, Path input, Path output)
+      throws IOException, PlayCompileTimeError {
+    System.gc();
+    peakHeap = 0;
+    sampling = true;
+    long start = System.nanoTime();
+    try {
+      compile(input, output);
+    } finally {
+      sampling = false;
+    }
+    final double millis = (System.nanoTime() - start) / 1_000_000.0;
+
+    final long pages;
+    try (PdfDocument pdf = new PdfDocument(new PdfReader(output.toString()))) {
+      pages = pdf.getNumberOfPages();
+    }
+    System.out.printf("%-6s %9d %12.1f %16.1f%n", name, pages, millis, peakHeap / 1048576.0);
+    return new long[] {pages, peakHeap};
+  }
+
+  /**
+   * Compiles a play, laying it out while it is parsed.
+   *
+   * @param input  Play file.
+   * @param output Output PDF file.
+   * @throws IOException          if reading or writing failed.
+   * @throws PlayCompileTimeError if the play is invalid.
+   */
+  private static void compile(Path input, Path output) throws IOException, PlayCompileTimeError {
+    FileParser fp = new FileParser(input.toString(), output.toString(), true);
+    fp.parseAll();
+    fp.output();
+  }
+
+  /**
+   * Samples the live heap until the JVM exits. While a compilation is measured, garbage is
+   * collected at a fixed interval, so that the heap used afterwards only holds live objects.
+   */
+  private static void sample() {
+    while (true) {
+      try {
+        Thread.sleep(SAMPLE_MILLIS);
+      } catch (InterruptedException e) {
+        return;
+      }
+      if (sampling) {
+        System.gc();
+        final long used = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        if (used > peakHeap) {
+          peakHeap = used;
+        }
+      }
+    }
+  }
+}
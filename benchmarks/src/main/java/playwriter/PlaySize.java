@@ -0,0 +1,68 @@
+package playwriter;
+
+/**
+ * Represents the size classes of the generated plays used by the benchmarks.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public enum PlaySize {
+  /**
+   * One act of two short scenes.
+   */
+  SMALL(1, 2, 25),
+
+  /**
+   * Five acts of ten scenes, about two thousand speeches.
+   */
+  MEDIUM(5, 10, 40),
+
+  /**
+   * Five acts of a hundred scenes, about a hundred thousand speeches.
+   */
+  HUGE(5, 100, 200);
+
+  private final int acts;
+  private final int scenesPerAct;
+  private final int speechesPerScene;
+
+  /**
+   * Constructor.
+   *
+   * @param actCount    Number of acts.
+   * @param sceneCount  Number of scenes per act.
+   * @param speechCount Number of speeches per scene.
+   */
+  PlaySize(int actCount, int sceneCount, int speechCount) {
+    acts = actCount;
+    scenesPerAct = sceneCount;
+    speechesPerScene = speechCount;
+  }
+
+  /**
+   * Gets the number of acts.
+   *
+   * @return Number of acts.
+   */
+  public int getActs() {
+    return acts;
+  }
+
+  /**
+   * Gets the number of scenes per act.
+   *
+   * @return Number of scenes per act.
+   */
+  public int getScenesPerAct() {
+    return scenesPerAct;
+  }
+
+  /**
+   * Gets the number of speeches per scene.
+   *
+   * @return Number of speeches per scene.
+   */
+  public int getSpeechesPerScene() {
+    return speechesPerScene;
+  }
+}
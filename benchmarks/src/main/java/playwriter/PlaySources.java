@@ -0,0 +1,132 @@
+package playwriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+
+/**
+ * Represents a generator of valid plays used as benchmark inputs.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class PlaySources {
+  private static final String[] CAST = {
+      "HAMLET", "OPHELIA", "HORATIO", "GERTRUDE", "CLAUDIUS", "POLONIUS", "LAERTES", "OSRIC"
+  };
+  private static final String SPEECH = "Though this be madness, yet there is method in it, "
+      + "and the readiness is all that we may hope for in this unweeded garden";
+
+  /**
+   * Private constructor.
+   */
+  private PlaySources() {
+  }
+
+  /**
+   * Gets the names of the characters of the generated plays.
+   *
+   * @return Upper case names, in declaration order.
+   */
+  public static List<String> getCast() {
+    return List.of(CAST);
+  }
+
+  /**
+   * Gets the text of every speech of the generated plays.
+   *
+   * @return Speech text.
+   */
+  public static String getSpeech() {
+    return SPEECH;
+  }
+
+  /**
+   * Generates the lines of a play of a given size.
+   *
+   * @param size Size of the play.
+   * @return Lines of the play.
+   */
+  public static List<String> generate(PlaySize size) {
+    List<String> lines = new ArrayList<>();
+    lines.add("TITLE: Benchmark Play");
+    lines.add("AUTHOR: PlayWriter");
+    lines.add("CHARACTERS:");
+    for (String name : CAST) {
+      lines.add("- " + name + ": " + name.toLowerCase() + " of Denmark");
+    }
+    lines.add("BEGIN");
+
+    for (int act = 1; act <= size.getActs(); ++act) {
+      lines.add("ACT " + act + ": Act number " + act);
+      for (int scene = 1; scene <= size.getScenesPerAct(); ++scene) {
+        lines.add("SCENE " + scene);
+        if (scene == 1) {
+          lines.add("ENTER ALL");
+        }
+        lines.add("* The lights rise slowly.");
+        for (int speech = 0; speech < size.getSpeechesPerScene(); ++speech) {
+          String name = CAST[speech % CAST.length];
+          if (speech % 10 == 9) {
+            lines.add(name + " > " + SPEECH);
+          } else {
+            lines.add(name + ": " + SPEECH);
+          }
+        }
+      }
+      lines.add("CURTAIN");
+    }
+
+    lines.add("THE END");
+    return lines;
+  }
+
+  /**
+   * Writes a plain text play of a given size.
+   *
+   * @param size Size of the play.
+   * @param dir  Directory to write the play to.
+   * @return Path of the written play.
+   * @throws IOException if the play could not be written.
+   */
+  public static Path writePlainText(PlaySize size, Path dir) throws IOException {
+    Path path = dir.resolve(size.name().toLowerCase() + ".play");
+    Files.write(path, generate(size), StandardCharsets.UTF_8);
+    return path;
+  }
+
+  /**
+   * Writes a DOCX play of a given size, with one paragraph per line.
+   *
+   * @param size Size of the play.
+   * @param dir  Directory to write the play to.
+   * @return Path of the written play.
+   * @throws IOException if the play could not be written.
+   */
+  public static Path writeDocx(PlaySize size, Path dir) throws IOException {
+    Path path = dir.resolve(size.name().toLowerCase() + ".docx");
+    try (XWPFDocument document = new XWPFDocument();
+         OutputStream out = Files.newOutputStream(path)) {
+      for (String line : generate(size)) {
+        document.createParagraph().createRun().setText(line);
+      }
+      document.write(out);
+    }
+    return path;
+  }
+
+  /**
+   * Gets the number of lines of a play of a given size.
+   *
+   * @param size Size of the play.
+   * @return Number of lines.
+   */
+  public static int getLineCount(PlaySize size) {
+    return generate(size).size();
+  }
+}
@@ -0,0 +1,58 @@
+package playwriter;
+
+/**
+ * Represents the size classes of the scale suite, from the size of a Shakespeare play up to a
+ * hundred times that size.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public enum ScaleClass {
+  /**
+   * About the size of Hamlet.
+   */
+  X1(30, 5, 5, 4_000, 200),
+
+  /**
+   * Ten times the size of Hamlet.
+   */
+  X10(500, 5, 50, 40_000, 2_000),
+
+  /**
+   * A hundred times the size of Hamlet, in cast, scenes and monologue length.
+   */
+  X100(5_000, 5, 500, 200_000, 20_000);
+
+  private final int castSize;
+  private final int acts;
+  private final int scenesPerAct;
+  private final int lines;
+  private final int monologueWords;
+
+  /**
+   * Constructor.
+   *
+   * @param characterCount Number of characters in the cast.
+   * @param actCount       Number of acts.
+   * @param sceneCount     Number of scenes per act.
+   * @param lineCount      Approximate total number of lines.
+   * @param monologueSize  Number of words of the longest monologues.
+   */
+  ScaleClass(int characterCount, int actCount, int sceneCount, int lineCount, int monologueSize) {
+    castSize = characterCount;
+    acts = actCount;
+    scenesPerAct = sceneCount;
+    lines = lineCount;
+    monologueWords = monologueSize;
+  }
+
+  /**
+   * Gets a seeded generator for plays of this size.
+   *
+   * @param seed Random seed.
+   * @return Play generator.
+   */
+  public CorpusGenerator generator(long seed) {
+    return new CorpusGenerator(seed, castSize, acts, scenesPerAct, lines, monologueWords);
+  }
+}
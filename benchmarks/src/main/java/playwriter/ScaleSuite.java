@@ -0,0 +1,140 @@
+package playwriter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents the scale suite. For each {@link ScaleClass}, a play is generated, then checked and
+ * compiled from plain text and DOCX, recording the wall time and peak heap of each step. Steps
+ * whose time per line grows much faster than the number of lines are reported as super-linear,
+ * and steps which fail are reported with their error.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class ScaleSuite {
+  private static final long SEED = 20230101L;
+  private static final double SUPER_LINEAR_FACTOR = 1.5;
+
+  /**
+   * Private constructor.
+   */
+  private ScaleSuite() {
+  }
+
+  /**
+   * Main function.
+   *
+   * @param args Names of the size classes to run, all of them if none given.
+   * @throws Exception if a play could not be generated or compiled.
+   */
+  public static void main(String[] args) throws Exception {
+    List<ScaleClass> classes = new ArrayList<>();
+    for (String arg : args) {
+      classes.add(ScaleClass.valueOf(arg.toUpperCase()));
+    }
+    if (classes.isEmpty()) {
+      classes.addAll(List.of(ScaleClass.values()));
+    }
+
+    Path dir = Files.createTempDirectory("playwriter-scale");
+    String[] steps = {"check text", "check docx", "pdf text", "pdf docx"};
+    double[] previousPerLine = new double[steps.length];
+    boolean passed = true;
+
+    System.out.printf("%-6s %-11s %9s %12s %12s %12s%n", "class", "step", "lines", "time (ms)",
+        "us/line", "peak heap MB");
+    try {
+      for (ScaleClass scale : classes) {
+        List<String> lines = scale.generator(SEED).generate();
+        Path text = dir.resolve(scale.name().toLowerCase() + ".play");
+        Path docx = dir.resolve(scale.name().toLowerCase() + ".docx");
+        CorpusGenerator.writePlainText(lines, text);
+        CorpusGenerator.writeDocx(lines, docx);
+
+        for (int step = 0; step < steps.length; ++step) {
+          Path input = (step % 2 == 0) ? text : docx;
+          Path output = (step < 2) ? null : dir.resolve("output.pdf");
+
+          resetPeakHeap();
+          long start = System.nanoTime();
+          try {
+            compile(input, output, step % 2 == 0);
+          } catch (Exception | OutOfMemoryError e) {
+            System.out.printf("%-6s %-11s %9d  FAILED: %s%n", scale, steps[step], lines.size(),
+                e.getMessage() == null ? e : e.getMessage().lines().findFirst().orElse(""));
+            previousPerLine[step] = 0;
+            passed = false;
+            continue;
+          }
+          double millis = (System.nanoTime() - start) / 1_000_000.0;
+          double perLine = millis * 1000 / lines.size();
+          long peak = getPeakHeap();
+
+          String flag = "";
+          if (previousPerLine[step] > 0 && perLine > previousPerLine[step] * SUPER_LINEAR_FACTOR) {
+            flag = "  SUPER-LINEAR";
+            passed = false;
+          }
+          previousPerLine[step] = perLine;
+          System.out.printf("%-6s %-11s %9d %12.1f %12.2f %12.1f%s%n", scale, steps[step],
+              lines.size(), millis, perLine, peak / 1048576.0, flag);
+        }
+      }
+    } finally {
+      BenchmarkFiles.delete(dir);
+    }
+
+    System.exit(passed ? 0 : 1);
+  }
+
+  /**
+   * Compiles a play, or only checks it if no output is given.
+   *
+   * @param input       Play file.
+   * @param output      Output PDF file, or <code>null</code> to only check the play.
+   * @param isPlainText Whether the play is plain text.
+   * @throws IOException          if reading or writing failed.
+   * @throws PlayCompileTimeError if the play is invalid.
+   */
+  private static void compile(Path input, Path output, boolean isPlainText)
+      throws IOException, PlayCompileTimeError {
+    FileParser fp = (output == null) ? new FileParser(input.toString(), isPlainText)
+        : new FileParser(input.toString(), output.toString(), isPlainText);
+    fp.parseAll();
+    fp.output();
+  }
+
+  /**
+   * Collects garbage and resets the peak usage of all heap pools.
+   */
+  private static void resetPeakHeap() {
+    System.gc();
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        pool.resetPeakUsage();
+      }
+    }
+  }
+
+  /**
+   * Gets the peak heap usage since the last reset.
+   *
+   * @return Sum of the peak usage of all heap pools, in bytes.
+   */
+  private static long getPeakHeap() {
+    long peak = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        peak += pool.getPeakUsage().getUsed();
+      }
+    }
+    return peak;
+  }
+}
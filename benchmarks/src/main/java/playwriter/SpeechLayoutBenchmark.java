@@ -0,0 +1,89 @@
+package playwriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the layout of a single speech by {@link Play#writeSpeech}.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SpeechLayoutBenchmark {
+  @Param({"12", "120", "1200"})
+  private int words;
+  private String text;
+  private Path output;
+  private Play play;
+  private Character romeo;
+  private Character juliet;
+  private boolean romeoSpeaks = false;
+
+  /**
+   * Opens a play in the middle of a scene.
+   *
+   * @throws IOException          if the output could not be opened.
+   * @throws PlayCompileTimeError if the play could not be set up.
+   */
+  @Setup(Level.Iteration)
+  public void setup() throws IOException, PlayCompileTimeError {
+    text = String.join(" ", Collections.nCopies(words, "word"));
+    output = Files.createTempFile("playwriter-bench", ".pdf");
+    play = new Play(output.toString());
+    play.setTitle("Benchmark Play");
+    play.setAuthor("PlayWriter");
+    play.addCharacter(ArgumentPair.getFrom("ROMEO"));
+    play.addCharacter(ArgumentPair.getFrom("JULIET"));
+    play.begin();
+    play.setAct(ArgumentPair.getFrom("1"));
+    play.setScene(ArgumentPair.getFrom("1"));
+    romeo = play.findCharacter("ROMEO");
+    juliet = play.findCharacter("JULIET");
+    romeo.enter();
+    juliet.enter();
+  }
+
+  /**
+   * Closes the play.
+   *
+   * @throws IOException if the output could not be deleted.
+   */
+  @TearDown(Level.Iteration)
+  public void tearDown() throws IOException {
+    play.abort();
+    Files.delete(output);
+  }
+
+  /**
+   * Writes a speech, alternating between two characters.
+   *
+   * @throws PlayCompileTimeError if the speech is invalid.
+   */
+  @Benchmark
+  public void writeSpeech() throws PlayCompileTimeError {
+    romeoSpeaks = !romeoSpeaks;
+    play.writeSpeech(romeoSpeaks ? romeo : juliet, text, false, true, false);
+  }
+}
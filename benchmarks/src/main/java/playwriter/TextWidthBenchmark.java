@@ -0,0 +1,74 @@
+package playwriter;
+
+import static com.itextpdf.io.font.constants.StandardFonts.TIMES_ROMAN;
+import static com.itextpdf.kernel.font.PdfFontFactory.createFont;
+
+import com.itextpdf.kernel.font.PdfFont;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the measurement of a speech with {@link GlyphWidths}, the way {@link PdfRenderer} does
+ * it for every speech, against {@link PdfFont#getWidth(String, float)}.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TextWidthBenchmark {
+  private static final int TEXT_SIZE = 12;
+  @Param({"1", "10", "100"})
+  private int sentences;
+  private String text;
+  private PdfFont font;
+  private GlyphWidths widths;
+
+  /**
+   * Builds a monologue and the fonts.
+   *
+   * @throws IOException if the font could not be loaded.
+   */
+  @Setup
+  public void setup() throws IOException {
+    text = String.join(" ", Collections.nCopies(sentences, PlaySources.getSpeech()));
+    font = createFont(TIMES_ROMAN);
+    widths = new GlyphWidths(font);
+  }
+
+  /**
+   * Measures the monologue with the glyph advance table.
+   *
+   * @return Width of the monologue.
+   */
+  @Benchmark
+  public float glyphWidths() {
+    return widths.getWidth(text, TEXT_SIZE);
+  }
+
+  /**
+   * Measures the monologue with the font.
+   *
+   * @return Width of the monologue.
+   */
+  @Benchmark
+  public float pdfFont() {
+    return font.getWidth(text, TEXT_SIZE);
+  }
+}
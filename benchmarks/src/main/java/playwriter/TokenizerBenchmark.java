@@ -0,0 +1,99 @@
+package playwriter;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the tokenizing of source lines with {@link LineLexer}, the way {@link FileParser} does
+ * it for every line, against the previous regular expression, {@link LegacyLineParser} and
+ * {@link ArgumentPair} path.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TokenizerBenchmark {
+  private static final Pattern WS_REGEX = Pattern.compile("\\s+");
+  @Param({"SMALL", "MEDIUM", "HUGE"})
+  private PlaySize size;
+  private List<String> lines;
+  private SymbolTable symbols;
+
+  /**
+   * Generates the benchmark input.
+   */
+  @Setup
+  public void setup() {
+    lines = PlaySources.generate(size);
+    symbols = new SymbolTable();
+    for (String name : PlaySources.getCast()) {
+      symbols.add(name);
+    }
+  }
+
+  /**
+   * Tokenizes all lines with the lexer.
+   *
+   * @param blackhole Sink for the tokens.
+   */
+  @Benchmark
+  public void lexer(Blackhole blackhole) {
+    LineLexer lexer = new LineLexer();
+    for (String line : lines) {
+      lexer.updateLine(line);
+      if (lexer.consumed()) {
+        continue;
+      }
+      blackhole.consume(lexer.firstKeyword());
+      int separator = lexer.findSpeechSeparator();
+      if (separator != -1) {
+        lexer.tokenBefore(separator);
+        blackhole.consume(lexer.findToken(symbols));
+        blackhole.consume(lexer.getTextAfter(separator));
+      }
+    }
+  }
+
+  /**
+   * Tokenizes all lines the way it was done before the lexer.
+   *
+   * @param blackhole Sink for the tokens.
+   */
+  @Benchmark
+  public void legacy(Blackhole blackhole) {
+    LegacyLineParser lineParser = new LegacyLineParser();
+    for (String line : lines) {
+      String normalised = WS_REGEX.matcher(line.strip()).replaceAll(" ");
+      if (normalised.isEmpty()) {
+        continue;
+      }
+      lineParser.updateLine(normalised);
+      String fullLine = lineParser.getLine();
+      blackhole.consume(lineParser.getNextArgument().toUpperCase());
+      Pair colon = ArgumentPair.getFrom(fullLine);
+      Pair arrow = ArgumentPair.getFrom(fullLine, Utils.INDENTED_SPEECH_START);
+      blackhole.consume(colon.getFirstArgument());
+      blackhole.consume(colon.getSecondArgument());
+      blackhole.consume(arrow.getFirstArgument());
+      blackhole.consume(arrow.getSecondArgument());
+    }
+  }
+}
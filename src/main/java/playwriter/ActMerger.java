@@ -0,0 +1,333 @@
+package playwriter;
+
+import com.itextpdf.kernel.actions.data.ITextCoreProductData;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfDocumentInfo;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfString;
+import com.itextpdf.kernel.utils.PdfMerger;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents a writer laying out the acts of a {@link PlayScript} in parallel, and merging them
+ * into a single PDF file.
+ *
+ * <p>Every act after the first one starts on a new page, and resets the layout state, so acts are
+ * laid out independently: the first part holds the title page and the first act, and each
+ * following act is laid out into its own in-memory PDF by a {@link PdfRenderer}, on a pool of
+ * worker threads. The parts are then merged in order, while the following ones are still being
+ * laid out. The merged file is written in smart mode, so the font resources, identical in every
+ * part, are written only once.
+ *
+ * <p>The worker threads are shared by every play the writer lays out, so a writer is meant to be
+ * created once per compiler, and bounds the number of acts laid out at the same time across all
+ * the plays compiled concurrently. Idle threads are stopped after a while, so a writer which is
+ * no longer used holds no thread.
+ *
+ * <p>With a {@link FragmentCache}, each part is keyed by a hash of everything its layout depends
+ * on: its events, the cast names (which set the width of the gutter), the options, the title page
+ * for the first part, and the versions of PlayWriter and iText. Parts whose key is cached are not
+ * laid out again, so editing one act of a play only lays out that act.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class ActMerger {
+  private static final String DIGEST_ALGORITHM = "SHA-256";
+  private static final long IDLE_SECONDS = 30;
+  private final ThreadPoolExecutor pool;
+  private final FragmentCache cache;
+
+  /**
+   * Constructor.
+   *
+   * @param threadCount Maximum number of acts laid out at the same time.
+   * @throws IllegalArgumentException if <code>threadCount</code> is not positive.
+   */
+  public ActMerger(int threadCount) {
+    this(threadCount, null);
+  }
+
+  /**
+   * Constructor reusing the parts laid out by previous compilations.
+   *
+   * @param threadCount   Maximum number of acts laid out at the same time.
+   * @param fragmentCache Cache of the laid out parts, or <code>null</code> to lay out every part.
+   * @throws IllegalArgumentException if <code>threadCount</code> is not positive.
+   */
+  public ActMerger(int threadCount, FragmentCache fragmentCache) {
+    if (threadCount < 1) {
+      throw new IllegalArgumentException("Error: thread count must be positive.");
+    }
+    pool = new ThreadPoolExecutor(threadCount, threadCount, IDLE_SECONDS, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), task -> {
+          Thread thread = new Thread(task, "playwriter-act");
+          thread.setDaemon(true);
+          return thread;
+        });
+    pool.allowCoreThreadTimeOut(true);
+    cache = fragmentCache;
+  }
+
+  /**
+   * Lays out a play and writes it to a PDF file. The file is only replaced once complete.
+   *
+   * @param script         Play to lay out.
+   * @param outputFileName Output file name.
+   * @param revision       Revision of the play, from which the changing half of the document id
+   *                       is derived, or <code>null</code> to derive it from the play itself.
+   * @throws IOException if the layout, or the file writing, failed.
+   */
+  public void write(PlayScript script, String outputFileName, String revision)
+      throws IOException {
+    AtomicOutputFile outputFile = new AtomicOutputFile(Path.of(outputFileName));
+    try {
+      write(script, outputFile.getStream(), revision);
+    } catch (IOException | RuntimeException e) {
+      outputFile.discard();
+      throw e;
+    }
+    outputFile.commit();
+  }
+
+  /**
+   * Lays out a play and writes it to a PDF stream.
+   *
+   * @param script   Play to lay out.
+   * @param output   Output stream, closed once written.
+   * @param revision Revision of the play, from which the changing half of the document id is
+   *                 derived, or <code>null</code> to derive it from the play itself.
+   * @throws IOException if the layout, or the stream writing, failed.
+   */
+  public void write(PlayScript script, OutputStream output, String revision) throws IOException {
+    final String playRevision = (revision == null) ? getPlayKey(script) : revision;
+    List<Integer> starts = getPartStarts(script);
+    if (starts.size() == 1 && cache == null) {
+      // A single act has nothing to merge
+      PdfRenderer renderer = new PdfRenderer(output, true);
+      renderer.setRevision(playRevision);
+      script.render(renderer);
+      return;
+    }
+
+    List<Future<byte[]>> parts = new ArrayList<>(starts.size());
+    try (output) {
+      for (int i = 0; i < starts.size(); ++i) {
+        final int part = i;
+        final int end = (i + 1 < starts.size()) ? starts.get(i + 1) : script.getEvents().size();
+        parts.add(pool.submit(() -> getPart(script, part == 0, starts.get(part), end)));
+      }
+
+      PdfDocument pdf = PdfRenderer.openDocument(output, true, getDocumentId(script),
+          PdfRenderer.getDocumentId(playRevision));
+      PdfDocumentInfo info = pdf.getDocumentInfo();
+      info.setTitle(script.getTitle());
+      info.setAuthor(script.getAuthor());
+      PdfMerger merger = new PdfMerger(pdf);
+      for (Future<byte[]> part : parts) {
+        PdfDocument partPdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(part.get())));
+        merger.merge(partPdf, 1, partPdf.getNumberOfPages());
+        partPdf.close();
+      }
+      merger.close();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException cause) {
+        throw cause;
+      } else if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Error: interrupted while laying out the acts.");
+    } finally {
+      // Parts still waiting or being laid out after a failure are of no use
+      for (Future<byte[]> part : parts) {
+        part.cancel(true);
+      }
+    }
+  }
+
+  /**
+   * Gets the indexes of the events starting the parts of a play: its beginning, and every act
+   * after the first one.
+   *
+   * @param script Play.
+   * @return {@link List} of event indexes, in increasing order.
+   */
+  private static List<Integer> getPartStarts(PlayScript script) {
+    List<Integer> starts = new ArrayList<>();
+    starts.add(0);
+    for (PlayAct act : script.getActs()) {
+      if (act.getNumber() > 1) {
+        starts.add(act.getStart());
+      }
+    }
+    return starts;
+  }
+
+  /**
+   * Gets the permanent id of the merged document, which is the same as the one of the play laid
+   * out in a single document.
+   *
+   * @param script Play.
+   * @return Document id.
+   */
+  private static PdfString getDocumentId(PlayScript script) {
+    List<String> names = new ArrayList<>(script.getCharacterCount());
+    for (int id = 0; id < script.getCharacterCount(); ++id) {
+      names.add(script.getCharacterName(id));
+    }
+    return PdfRenderer.getDocumentId(script.getTitle(), script.getAuthor(), names);
+  }
+
+  /**
+   * Gets a part of a play from the cache, or lays it out and caches it.
+   *
+   * @param script    Play.
+   * @param titlePage <code>true</code> if the part begins the play, <code>false</code> if it
+   *                  starts with an act.
+   * @param start     Index of the first event of the part.
+   * @param end       Index after the last event of the part.
+   * @return PDF content of the part.
+   * @throws IOException if the layout, or the cache, failed.
+   */
+  private byte[] getPart(PlayScript script, boolean titlePage, int start, int end)
+      throws IOException {
+    if (cache == null) {
+      return renderPart(script, titlePage, start, end);
+    }
+
+    final String key = getPartKey(script, titlePage, start, end);
+    byte[] part = cache.get(key);
+    if (part == null) {
+      part = renderPart(script, titlePage, start, end);
+      cache.put(key, part);
+    }
+    return part;
+  }
+
+  /**
+   * Computes a hash of everything the layout of a whole play depends on. It changes with every
+   * revision of the play which changes its PDF, so it can stand for its revision.
+   *
+   * @param script Play.
+   * @return Hexadecimal hash of the layout input of the play.
+   */
+  static String getPlayKey(PlayScript script) {
+    return getPartKey(script, true, 0, script.getEvents().size());
+  }
+
+  /**
+   * Computes the cache key of a part of a play.
+   *
+   * @param script    Play.
+   * @param titlePage <code>true</code> if the part begins the play, <code>false</code> if it
+   *                  starts with an act.
+   * @param start     Index of the first event of the part.
+   * @param end       Index after the last event of the part.
+   * @return Hexadecimal hash of the layout input of the part.
+   */
+  private static String getPartKey(PlayScript script, boolean titlePage, int start, int end) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+
+    try (DataOutputStream data = new DataOutputStream(
+        new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+      writeString(data, Utils.VERSION);
+      writeString(data, ITextCoreProductData.getInstance().getVersion());
+      data.writeBoolean(titlePage);
+      if (titlePage) {
+        writeString(data, script.getTitle());
+        writeString(data, script.getAuthor());
+      }
+
+      final PlayOptions options = script.getOptions();
+      data.writeInt(options.getTextSize());
+      data.writeInt(options.getSceneSize());
+      data.writeInt(options.getActSize());
+      data.writeInt(options.getAuthorSize());
+      data.writeInt(options.getTitleSize());
+      data.writeInt(options.getSpeechPadding());
+
+      data.writeInt(script.getCharacterCount());
+      for (int id = 0; id < script.getCharacterCount(); ++id) {
+        writeString(data, script.getCharacterName(id));
+      }
+
+      data.writeInt(end - start);
+      for (PlayEvent event : script.getEvents().subList(start, end)) {
+        writeString(data, event.getType().name());
+        data.writeInt(event.getNumber());
+        writeString(data, event.getText());
+        data.writeBoolean(event.isOffStage());
+        data.writeBoolean(event.writesCharName());
+        data.writeBoolean(event.hasLeadingWhitespaces());
+      }
+    } catch (IOException e) {
+      // Writing to a digest never fails
+      throw new IllegalStateException(e);
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  /**
+   * Writes a {@link String} of any length, or <code>null</code>, to a hashed stream.
+   *
+   * @param data  Hashed stream.
+   * @param value Value to write.
+   * @throws IOException if writing failed.
+   */
+  private static void writeString(DataOutputStream data, String value) throws IOException {
+    if (value == null) {
+      data.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    data.writeInt(bytes.length);
+    data.write(bytes);
+  }
+
+  /**
+   * Lays out a part of a play into an in-memory PDF.
+   *
+   * @param script    Play.
+   * @param titlePage <code>true</code> if the part begins the play, <code>false</code> if it
+   *                  starts with an act.
+   * @param start     Index of the first event of the part.
+   * @param end       Index after the last event of the part.
+   * @return PDF content of the part.
+   * @throws IOException if the layout failed.
+   */
+  private static byte[] renderPart(PlayScript script, boolean titlePage, int start, int end)
+      throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    PdfRenderer renderer = new PdfRenderer(output, titlePage);
+    script.renderHeaders(renderer);
+    script.renderEvents(renderer, start, end);
+    renderer.close();
+    return output.toByteArray();
+  }
+}
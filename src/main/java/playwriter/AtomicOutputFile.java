@@ -0,0 +1,87 @@
+package playwriter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Represents an output file replaced atomically. The content is written through a large buffer to
+ * a hidden temporary file in the same directory, which is only moved in place of the file once
+ * complete. Readers of the file therefore never see a partial file, and a failed write leaves the
+ * previous file, if any, as it was.
+ *
+ * <p>The temporary file is named after the file, the process and a counter, so that concurrent
+ * writers of the same file, even in different processes, never share one. The last one committed
+ * wins.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class AtomicOutputFile {
+  private static final int BUFFER_SIZE = 256 * 1024;
+  private static final String TEMP_EXTENSION = ".tmp";
+  private static final AtomicLong COUNTER = new AtomicLong();
+  private final Path file;
+  private final Path temp;
+  private final OutputStream stream;
+
+  /**
+   * Constructor. The temporary file is created at once.
+   *
+   * @param outputFile File to replace.
+   * @throws IOException if the temporary file could not be created.
+   */
+  public AtomicOutputFile(Path outputFile) throws IOException {
+    file = outputFile.toAbsolutePath();
+    temp = file.resolveSibling("." + file.getFileName() + "." + ProcessHandle.current().pid() + "-"
+        + COUNTER.incrementAndGet() + TEMP_EXTENSION);
+    stream = new BufferedOutputStream(Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW,
+        StandardOpenOption.WRITE), BUFFER_SIZE);
+  }
+
+  /**
+   * Gets the stream writing to the temporary file. Closing it does not replace the file.
+   *
+   * @return Output stream.
+   */
+  public OutputStream getStream() {
+    return stream;
+  }
+
+  /**
+   * Closes the stream if still open, and moves the temporary file in place of the file. If this
+   * fails, the temporary file is deleted.
+   *
+   * @throws IOException if the stream could not be closed, or the file could not be replaced.
+   */
+  public void commit() throws IOException {
+    try {
+      stream.close();
+      Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      discard();
+      throw e;
+    }
+  }
+
+  /**
+   * Closes the stream if still open, and deletes the temporary file, leaving the file as it was.
+   */
+  public void discard() {
+    try {
+      stream.close();
+    } catch (IOException ignored) {
+      // The file is deleted anyway
+    }
+    try {
+      Files.deleteIfExists(temp);
+    } catch (IOException ignored) {
+      // Nothing else can be done, and the file is left as it was
+    }
+  }
+}
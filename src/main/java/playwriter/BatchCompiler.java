@@ -0,0 +1,592 @@
+package playwriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Represents a headless compiler, which compiles many play files concurrently on a pool of worker
+ * threads. Each file is compiled by its own {@link FileParser} on a single worker thread.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class BatchCompiler {
+  private static final String USAGE = """
+      Usage: playwriter [options] <file or directory>...
+             playwriter [options] --daemon <socket>
+             playwriter --connect <socket> <file or directory>...
+             playwriter [-j <count>] --http <port>
+
+      Compiles every play file given, and every .play, .txt, .docx or .doc file found in the given
+      directories. Each PDF is written next to its play file. A daemon keeps running with the
+      given options, and compiles the files sent by clients connecting to its socket. An HTTP
+      service compiles the plays posted to its /compile endpoint, and answers with their PDF.
+
+      Options:
+        -j, --jobs <count>  Number of files compiled at the same time (default: number of cores).
+        -c, --check         Only checks the plays, without writing any PDF.
+        --charset <name>    Charset of plain text files (default: from the byte order mark, or
+                            UTF-8).
+        --render <mode>     Layout of each PDF: 'pipelined' with the parsing (default),
+                            'sequential' after it, or 'parallel-acts' to lay out the acts in
+                            parallel and merge them.
+        --fragment-cache <dir>
+                            Keeps the laid out acts in the given directory, and reuses those
+                            which have not changed (implies '--render parallel-acts').
+        --fragment-cache-size <MB>
+                            Maximum size of the fragment cache, the least recently used acts
+                            being removed past it (default: 256).
+        --cache <dir>       Keeps the compiled PDF files in the given directory, and copies them
+                            instead of compiling plays which have not changed.
+        --cache-size <MB>   Maximum size of the cache, the least recently used files being
+                            removed past it (default: 512).
+        --fail-page         Replaces the PDF file of a play which fails with a page saying so
+                            (default: the previous PDF file is kept).
+        -w, --watch         Keeps running after compiling the files, and compiles them again
+                            whenever they are saved.
+        --daemon <socket>   Runs as a daemon listening on the given Unix domain socket.
+        --connect <socket>  Sends the files to the daemon listening on the given socket.
+        --http <port>       Runs as an HTTP compile service listening on the given port.
+        -h, --help          Shows this message.""";
+  private final int jobs;
+  private final boolean checkOnly;
+  private final Charset charset;
+  private final RenderMode renderMode;
+  private final ActMerger actMerger;
+  private final OutputCache outputCache;
+  private final boolean failPage;
+
+  /**
+   * Constructor.
+   *
+   * @param jobCount    Number of files compiled at the same time.
+   * @param check       <code>true</code> to only check the plays without writing any PDF,
+   *                    <code>false</code> otherwise.
+   * @param textCharset Charset of plain text files, or <code>null</code> to find it from their
+   *                    byte order mark and default to UTF-8.
+   * @throws IllegalArgumentException if <code>jobCount</code> is not positive.
+   */
+  public BatchCompiler(int jobCount, boolean check, Charset textCharset) {
+    this(jobCount, check, textCharset, RenderMode.PIPELINED);
+  }
+
+  /**
+   * Constructor with a given layout of the PDF files.
+   *
+   * @param jobCount    Number of files compiled at the same time.
+   * @param check       <code>true</code> to only check the plays without writing any PDF,
+   *                    <code>false</code> otherwise.
+   * @param textCharset Charset of plain text files, or <code>null</code> to find it from their
+   *                    byte order mark and default to UTF-8.
+   * @param mode        Way each play is laid out into its PDF file.
+   * @throws IllegalArgumentException if <code>jobCount</code> is not positive.
+   */
+  public BatchCompiler(int jobCount, boolean check, Charset textCharset, RenderMode mode) {
+    this(jobCount, check, textCharset, mode, null, null, false);
+  }
+
+  /**
+   * Constructor with all the settings.
+   *
+   * @param jobCount    Number of files compiled at the same time.
+   * @param check       <code>true</code> to only check the plays without writing any PDF,
+   *                    <code>false</code> otherwise.
+   * @param textCharset Charset of plain text files, or <code>null</code> to find it from their
+   *                    byte order mark and default to UTF-8.
+   * @param mode        Way each play is laid out into its PDF file.
+   * @param merger      Writer of the acts in {@link RenderMode#PARALLEL_ACTS}, or
+   *                    <code>null</code> to create one for this compiler, with one thread per
+   *                    core and no cache.
+   * @param cache       Cache of the compiled PDF files, or <code>null</code> to always compile.
+   * @param failed      <code>true</code> to replace the PDF file of a play which fails with a
+   *                    fail message, <code>false</code> to leave it as it was.
+   * @throws IllegalArgumentException if <code>jobCount</code> is not positive, or a writer of the
+   *                                  acts is given in another mode.
+   */
+  public BatchCompiler(int jobCount, boolean check, Charset textCharset, RenderMode mode,
+                       ActMerger merger, OutputCache cache, boolean failed) {
+    if (jobCount < 1) {
+      throw new IllegalArgumentException("Error: job count must be positive.");
+    } else if (merger != null && mode != RenderMode.PARALLEL_ACTS) {
+      throw new IllegalArgumentException("Error: a writer of the acts needs parallel acts.");
+    }
+    jobs = jobCount;
+    checkOnly = check;
+    charset = textCharset;
+    renderMode = mode;
+    // Shared by all the compilations, so that they do not each start their own threads
+    actMerger = (mode == RenderMode.PARALLEL_ACTS && merger == null)
+        ? new ActMerger(Runtime.getRuntime().availableProcessors()) : merger;
+    outputCache = cache;
+    failPage = failed;
+  }
+
+  /**
+   * Runs the compiler from command-line arguments, and prints a summary on the standard output.
+   * In watch mode, the files are then compiled again whenever they are saved, until interrupted.
+   *
+   * @param args Command-line arguments.
+   * @return Exit code: <code>0</code> if all files compiled, <code>1</code> if some failed, and
+   *         <code>2</code> if the arguments are invalid.
+   */
+  public static int run(String[] args) {
+    final BatchOptions options;
+    try {
+      options = BatchOptions.parse(args);
+    } catch (IllegalArgumentException e) {
+      return usageError(e.getMessage());
+    }
+    if (options.isHelp()) {
+      System.out.println(USAGE);
+      return 0;
+    }
+
+    final List<Path> paths = options.getPaths();
+    if (options.getConnectSocket() != null) {
+      if (!options.hasOnly("--connect")) {
+        return usageError("'--connect' uses the options of the daemon");
+      }
+      return runClient(options.getConnectSocket(), paths);
+    } else if (options.getHttpPort() >= 0) {
+      if (!options.hasOnly("--http", "--jobs") || !paths.isEmpty()) {
+        return usageError("'--http' only takes '--jobs'");
+      }
+      return runServer(options.getHttpPort(), options.getJobCount());
+    } else if (options.getDaemonSocket() != null) {
+      if (options.isWatch() || !paths.isEmpty()) {
+        return usageError("'--daemon' does not take any file");
+      }
+    } else if (paths.isEmpty()) {
+      return usageError("no input files");
+    }
+
+    // Resolved before building the compiler, as the mode is part of the cache keys
+    final RenderMode mode;
+    try {
+      mode = options.getRenderMode();
+    } catch (IllegalArgumentException e) {
+      return usageError(e.getMessage());
+    }
+
+    final BatchCompiler compiler;
+    try {
+      compiler = create(options, mode);
+    } catch (IOException e) {
+      System.err.println("Error: " + e.getMessage());
+      return 2;
+    }
+    return (options.getDaemonSocket() != null)
+        ? runDaemon(compiler, options.getDaemonSocket(), options.getJobCount())
+        : runCompiler(compiler, options);
+  }
+
+  /**
+   * Creates a compiler from command-line options.
+   *
+   * @param options Command-line options.
+   * @param mode    Way each play is laid out into its PDF file, as resolved from the options.
+   * @return Compiler.
+   * @throws IOException if a cache directory could not be created or read.
+   */
+  private static BatchCompiler create(BatchOptions options, RenderMode mode) throws IOException {
+    ActMerger merger = (options.getFragmentCacheDir() == null) ? null : new ActMerger(
+        Runtime.getRuntime().availableProcessors(),
+        new FragmentCache(options.getFragmentCacheDir(), options.getFragmentCacheSize()));
+    OutputCache cache = (options.getCacheDir() == null) ? null
+        : new OutputCache(options.getCacheDir(), options.getCacheSize());
+    return new BatchCompiler(options.getJobCount(), options.isCheck(), options.getCharset(), mode,
+        merger, cache, options.isFailPage());
+  }
+
+  /**
+   * Runs a {@link CompileDaemon} until interrupted.
+   *
+   * @param compiler Compiler of the files sent by clients.
+   * @param socket   Path of the socket file to listen on.
+   * @param jobCount Number of files compiled at the same time, across all clients.
+   * @return Exit code, as {@link BatchCompiler#run(String[])}.
+   */
+  private static int runDaemon(BatchCompiler compiler, Path socket, int jobCount) {
+    System.out.println("Listening on '" + socket + "', press Ctrl+C to stop.");
+    try {
+      new CompileDaemon(compiler, socket, jobCount).serve(System.out);
+    } catch (IOException e) {
+      System.err.println("Error: " + e.getMessage());
+      return 2;
+    }
+    return 0;
+  }
+
+  /**
+   * Compiles the files given on the command line, and prints a summary on the standard output.
+   * In watch mode, the files are then compiled again whenever they are saved, until interrupted.
+   *
+   * @param compiler Compiler.
+   * @param options  Command-line options.
+   * @return Exit code, as {@link BatchCompiler#run(String[])}.
+   */
+  private static int runCompiler(BatchCompiler compiler, BatchOptions options) {
+    List<Path> inputs;
+    PlayWatcher watcher = null;
+    try {
+      inputs = collectInputs(options.getPaths());
+      if (options.isWatch()) {
+        // Registered before the first compilation, so that no save is missed
+        watcher = new PlayWatcher(compiler, options.getJobCount(), options.getPaths());
+      }
+    } catch (IOException e) {
+      System.err.println("Error: " + e.getMessage());
+      return 2;
+    }
+
+    long start = System.nanoTime();
+    List<CompilationResult> results;
+    try {
+      results = compiler.compileAll(inputs);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      System.err.println("Error: compilation interrupted.");
+      return 1;
+    }
+
+    final boolean success = printSummary(results, System.nanoTime() - start, System.out);
+    if (watcher == null) {
+      return success ? 0 : 1;
+    }
+
+    System.out.println();
+    System.out.println("Watching for changes, press Ctrl+C to stop.");
+    try {
+      watcher.watch(System.out);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return 0;
+    } catch (IOException e) {
+      System.err.println("Error: " + e.getMessage());
+      return 1;
+    }
+    return 0;
+  }
+
+  /**
+   * Compiles files on a {@link CompileDaemon}, and prints a summary on the standard output.
+   *
+   * @param socket Path of the socket file of the daemon.
+   * @param paths  Files and directories to compile.
+   * @return Exit code, as {@link BatchCompiler#run(String[])}.
+   */
+  private static int runClient(Path socket, List<Path> paths) {
+    if (paths.isEmpty()) {
+      return usageError("no input files");
+    }
+
+    long start = System.nanoTime();
+    List<CompilationResult> results;
+    try {
+      results = new CompileClient(socket).compileAll(collectInputs(paths));
+    } catch (IOException e) {
+      System.err.println("Error: " + e.getMessage());
+      return 2;
+    }
+    return printSummary(results, System.nanoTime() - start, System.out) ? 0 : 1;
+  }
+
+  /**
+   * Runs an HTTP compile service until interrupted.
+   *
+   * @param port     Port to listen on.
+   * @param jobCount Number of plays compiled at the same time.
+   * @return Exit code, as {@link BatchCompiler#run(String[])}.
+   */
+  private static int runServer(int port, int jobCount) {
+    CompileServer server;
+    try {
+      server = new CompileServer(new InetSocketAddress(port), jobCount);
+    } catch (IOException e) {
+      System.err.println("Error: " + e.getMessage());
+      return 2;
+    }
+
+    server.start();
+    System.out.println("Listening on http://localhost:" + server.getPort() + CompileServer.PATH
+        + ", press Ctrl+C to stop.");
+    try {
+      server.awaitStop();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      server.stop();
+    }
+    return 0;
+  }
+
+  /**
+   * Gets all the files to compile. Files are kept as is, and directories are searched recursively
+   * for files accepted by {@link Utils#isPlayFile(String)}.
+   *
+   * @param paths Files and directories.
+   * @return {@link List} of files to compile.
+   * @throws IOException if a path does not exist, or a directory could not be read.
+   */
+  public static List<Path> collectInputs(List<Path> paths) throws IOException {
+    List<Path> inputs = new ArrayList<>();
+
+    for (Path path : paths) {
+      if (!Files.isDirectory(path)) {
+        if (!Files.exists(path)) {
+          throw new IOException("file '" + path + "' does not exist");
+        }
+        inputs.add(path);
+        continue;
+      }
+
+      try (Stream<Path> files = Files.walk(path)) {
+        files.filter(p -> Files.isRegularFile(p) && Utils.isPlayFile(p.getFileName().toString()))
+            .sorted()
+            .forEach(inputs::add);
+      }
+    }
+
+    return inputs;
+  }
+
+  /**
+   * Compiles a single play file. The output PDF is written next to it, unless only checking.
+   *
+   * @param input Play file to compile.
+   * @return Compilation result.
+   */
+  public CompilationResult compile(Path input) {
+    final long start = System.nanoTime();
+    final String fileName = input.getFileName().toString();
+    final boolean isPlainText = Utils.isPlainTextFile(fileName);
+    final Path output = checkOnly ? null : input.resolveSibling(Utils.getOutputFileName(fileName));
+    if (checkOnly || outputCache == null) {
+      return new CompilationResult(input, output, compile(input, output, isPlainText, null),
+          System.nanoTime() - start);
+    }
+
+    String errorMsg;
+    try {
+      final String key = OutputCache.computeKey(input, getSettings(isPlainText));
+      try {
+        synchronized (outputCache.acquireLock(key)) {
+          if (outputCache.fetch(key, output)) {
+            errorMsg = null;
+          } else {
+            errorMsg = compile(input, output, isPlainText, key);
+            if (errorMsg == null) {
+              storeInCache(key, output);
+            }
+          }
+        }
+      } finally {
+        outputCache.releaseLock(key);
+      }
+    } catch (IOException e) {
+      errorMsg = e.getMessage();
+    }
+    return new CompilationResult(input, output, errorMsg, System.nanoTime() - start);
+  }
+
+  /**
+   * Compiles a single play file with a {@link FileParser}.
+   *
+   * @param input       Play file to compile.
+   * @param output      Output PDF file, or <code>null</code> if only checking.
+   * @param isPlainText <code>true</code> if the file is plain text, <code>false</code> otherwise.
+   * @param revision    Hash of the file and settings, which marks the revision of its PDF, or
+   *                    <code>null</code> if not computed.
+   * @return Error message, or <code>null</code> if the compilation succeeded.
+   */
+  private String compile(Path input, Path output, boolean isPlainText, String revision) {
+    FileParser fp = null;
+    String errorMsg = null;
+
+    try {
+      fp = checkOnly ? new FileParser(input.toString(), isPlainText, charset)
+          : (actMerger != null)
+          ? new FileParser(input.toString(), output.toString(), isPlainText, charset, actMerger)
+          : new FileParser(input.toString(), output.toString(), isPlainText, charset, renderMode);
+      if (revision != null) {
+        fp.setRevision(revision);
+      }
+      fp.parseAll();
+      fp.output();
+    } catch (Exception | StackOverflowError | OutOfMemoryError e) {
+      // A single huge or deeply nested play must not stop the other compilations
+      if (fp != null && failPage) {
+        fp.closePlayWithFailMessage();
+      } else if (fp != null) {
+        fp.abort();
+      }
+      errorMsg = (e.getMessage() == null) ? e.toString() : e.getMessage();
+    }
+    return errorMsg;
+  }
+
+  /**
+   * Gets the settings of the compilation of a file which change its output, for its cache key.
+   *
+   * @param isPlainText <code>true</code> if the file is plain text, <code>false</code> otherwise.
+   * @return Settings, as text.
+   */
+  private String getSettings(boolean isPlainText) {
+    return "plainText=" + isPlainText + ";charset=" + ((charset == null) ? "" : charset.name())
+        + ";render=" + renderMode;
+  }
+
+  /**
+   * Caches a compiled PDF file. Failing to do so does not fail the compilation, as the cache is
+   * only used to skip later ones.
+   *
+   * @param key    Key of the compilation.
+   * @param output Compiled PDF file.
+   */
+  private void storeInCache(String key, Path output) {
+    try {
+      outputCache.store(key, output);
+    } catch (IOException ignored) {
+      // The file is compiled again next time
+    }
+  }
+
+  /**
+   * Compiles all play files on the worker pool.
+   *
+   * @param inputs Play files to compile.
+   * @return {@link List} of compilation results, in the same order as <code>inputs</code>.
+   * @throws InterruptedException if interrupted while waiting for the workers.
+   */
+  public List<CompilationResult> compileAll(List<Path> inputs) throws InterruptedException {
+    List<CompilationResult> results = new ArrayList<>(inputs.size());
+    if (inputs.isEmpty()) {
+      return results;
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool(Math.min(jobs, inputs.size()));
+    try {
+      return compileAll(inputs, pool);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Compiles all play files on a given pool, which may be shared with other callers. The
+   * compilations not started yet are cancelled if interrupted.
+   *
+   * @param inputs Play files to compile.
+   * @param pool   Pool to compile the files on.
+   * @return {@link List} of compilation results, in the same order as <code>inputs</code>.
+   * @throws InterruptedException if interrupted while waiting for the pool.
+   */
+  public List<CompilationResult> compileAll(List<Path> inputs, ExecutorService pool)
+      throws InterruptedException {
+    List<CompilationResult> results = new ArrayList<>(inputs.size());
+    List<Future<CompilationResult>> futures = new ArrayList<>(inputs.size());
+    try {
+      for (Path input : inputs) {
+        futures.add(pool.submit(() -> compile(input)));
+      }
+      for (Future<CompilationResult> future : futures) {
+        results.add(future.get());
+      }
+    } catch (ExecutionException e) {
+      // compile() records every exception, stack overflow and lack of memory in the result, so
+      // only other errors, which leave the JVM unusable, get here
+      throw new IllegalStateException(
+          "Error: compiling '" + inputs.get(results.size()) + "' failed.", e.getCause());
+    } finally {
+      for (Future<CompilationResult> future : futures) {
+        future.cancel(true);
+      }
+    }
+
+    return results;
+  }
+
+  /**
+   * Prints the wall time of each file, followed by a summary of the failures.
+   *
+   * @param results      Compilation results.
+   * @param elapsedNanos Total wall time, in nanoseconds.
+   * @param out          Stream to print to.
+   * @return <code>true</code> if all files compiled, <code>false</code> otherwise.
+   */
+  public static boolean printSummary(List<CompilationResult> results, long elapsedNanos,
+                                     PrintStream out) {
+    int failures = 0;
+
+    for (CompilationResult result : results) {
+      printResultLine(result, out);
+      if (!result.isSuccess()) {
+        ++failures;
+      }
+    }
+
+    if (failures > 0) {
+      out.println();
+      out.println("Failures:");
+      for (CompilationResult result : results) {
+        if (!result.isSuccess()) {
+          out.println("  " + result.getInput() + ": " + result.getErrorMessage());
+        }
+      }
+    }
+
+    out.println();
+    out.printf("Compiled %d file(s) in %.1f ms, %d failed.%n", results.size(),
+        elapsedNanos / 1_000_000.0, failures);
+    return failures == 0;
+  }
+
+  /**
+   * Prints the wall time of a single file, followed by its error message if it failed.
+   *
+   * @param result Compilation result.
+   * @param out    Stream to print to.
+   */
+  public static void printResult(CompilationResult result, PrintStream out) {
+    synchronized (out) {
+      printResultLine(result, out);
+      if (!result.isSuccess()) {
+        out.println("  " + result.getErrorMessage());
+      }
+    }
+  }
+
+  /**
+   * Prints the wall time of a single file.
+   *
+   * @param result Compilation result.
+   * @param out    Stream to print to.
+   */
+  private static void printResultLine(CompilationResult result, PrintStream out) {
+    out.printf("%-4s %10.1f ms  %s%n", result.isSuccess() ? "OK" : "FAIL",
+        result.getElapsedMillis(), result.getInput());
+  }
+
+  /**
+   * Prints an argument error followed by the usage.
+   *
+   * @param errorMsg Error message.
+   * @return Exit code for invalid arguments.
+   */
+  private static int usageError(String errorMsg) {
+    System.err.println("Error: " + errorMsg + ".");
+    System.err.println(USAGE);
+    return 2;
+  }
+}
@@ -0,0 +1,314 @@
+package playwriter;
+
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Represents the command-line options of a {@link BatchCompiler}. Parsing only checks each option
+ * on its own, and records which ones were given, so that the run can check how they combine.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class BatchOptions {
+  private static final long DEFAULT_CACHE_SIZE_MB = 512;
+  private static final long BYTES_PER_MB = 1024 * 1024;
+  private static final int MAX_PORT = 65535;
+  private final Set<String> given = new HashSet<>();
+  private final List<Path> paths = new ArrayList<>();
+  private boolean help = false;
+  private boolean check = false;
+  private boolean watch = false;
+  private boolean failPage = false;
+  private int jobCount = Runtime.getRuntime().availableProcessors();
+  private Charset charset = null;
+  private RenderMode mode = null;
+  private Path fragmentCacheDir = null;
+  private long fragmentCacheSize = FragmentCache.DEFAULT_MAX_BYTES;
+  private Path cacheDir = null;
+  private long cacheSize = DEFAULT_CACHE_SIZE_MB * BYTES_PER_MB;
+  private Path daemonSocket = null;
+  private Path connectSocket = null;
+  private int httpPort = -1;
+
+  /**
+   * Private constructor.
+   */
+  private BatchOptions() {
+  }
+
+  /**
+   * Parses command-line arguments. Parsing stops at the help option.
+   *
+   * @param args Command-line arguments.
+   * @return Options.
+   * @throws IllegalArgumentException if an option is unknown, or its value is missing or invalid.
+   */
+  public static BatchOptions parse(String[] args) {
+    BatchOptions options = new BatchOptions();
+    for (int i = 0; i < args.length; ++i) {
+      final String name = args[i];
+      switch (name) {
+        case "-h", "--help" -> {
+          options.help = true;
+          return options;
+        }
+        case "-c", "--check" -> options.check = true;
+        case "-w", "--watch" -> options.watch = true;
+        case "--fail-page" -> options.failPage = true;
+        case "-j", "--jobs" -> options.jobCount = (int) parseNumber(args, ++i, 1,
+            Integer.MAX_VALUE, "job count must be positive");
+        case "--charset" -> {
+          final String value = getValue(args, ++i);
+          try {
+            options.charset = Charset.forName(value);
+          } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown charset '" + value + "'", e);
+          }
+        }
+        case "--render" -> {
+          final String value = getValue(args, ++i);
+          try {
+            options.mode = RenderMode.valueOf(value.toUpperCase(Locale.ROOT).replace('-', '_'));
+          } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown render mode '" + value + "'", e);
+          }
+        }
+        case "--fragment-cache" -> options.fragmentCacheDir = Path.of(getValue(args, ++i));
+        case "--fragment-cache-size" -> options.fragmentCacheSize = parseNumber(args, ++i, 1,
+            Long.MAX_VALUE / BYTES_PER_MB, "cache size must be positive") * BYTES_PER_MB;
+        case "--cache" -> options.cacheDir = Path.of(getValue(args, ++i));
+        case "--cache-size" -> options.cacheSize = parseNumber(args, ++i, 1,
+            Long.MAX_VALUE / BYTES_PER_MB, "cache size must be positive") * BYTES_PER_MB;
+        case "--daemon" -> options.daemonSocket = Path.of(getValue(args, ++i));
+        case "--connect" -> options.connectSocket = Path.of(getValue(args, ++i));
+        case "--http" ->
+            options.httpPort = (int) parseNumber(args, ++i, 0, MAX_PORT, "invalid port '%s'");
+        default -> {
+          if (name.startsWith("-")) {
+            throw new IllegalArgumentException("unknown option '" + name + "'");
+          }
+          options.paths.add(Path.of(name));
+        }
+      }
+
+      if (name.startsWith("-")) {
+        options.given.add(name.startsWith("--") ? name : getLongName(name));
+      }
+    }
+    return options;
+  }
+
+  /**
+   * Checks whether only some options were given, if any. Options are named in their long form.
+   *
+   * @param names Names of the options allowed.
+   * @return <code>true</code> if no other option was given, <code>false</code> otherwise.
+   */
+  public boolean hasOnly(String... names) {
+    return Set.of(names).containsAll(given);
+  }
+
+  /**
+   * Gets the way each play is laid out, from the options which change it. A fragment cache lays
+   * out the acts in parallel, so it implies {@link RenderMode#PARALLEL_ACTS}.
+   *
+   * @return Render mode.
+   * @throws IllegalArgumentException if the options imply different render modes.
+   */
+  public RenderMode getRenderMode() {
+    if (fragmentCacheDir == null) {
+      return (mode == null) ? RenderMode.PIPELINED : mode;
+    } else if (mode != null && mode != RenderMode.PARALLEL_ACTS) {
+      throw new IllegalArgumentException(
+          "'--fragment-cache' can only be used with '--render parallel-acts'");
+    }
+    return RenderMode.PARALLEL_ACTS;
+  }
+
+  /**
+   * Checks whether the help was asked for.
+   *
+   * @return <code>true</code> to only show the help, <code>false</code> otherwise.
+   */
+  public boolean isHelp() {
+    return help;
+  }
+
+  /**
+   * Checks whether the plays are only checked.
+   *
+   * @return <code>true</code> to only check the plays, <code>false</code> to compile them.
+   */
+  public boolean isCheck() {
+    return check;
+  }
+
+  /**
+   * Checks whether the files are watched after the first compilation.
+   *
+   * @return <code>true</code> to watch the files, <code>false</code> otherwise.
+   */
+  public boolean isWatch() {
+    return watch;
+  }
+
+  /**
+   * Checks whether the PDF file of a play which fails is replaced with a fail page.
+   *
+   * @return <code>true</code> to write a fail page, <code>false</code> to keep the PDF file.
+   */
+  public boolean isFailPage() {
+    return failPage;
+  }
+
+  /**
+   * Gets the number of files compiled at the same time.
+   *
+   * @return Job count.
+   */
+  public int getJobCount() {
+    return jobCount;
+  }
+
+  /**
+   * Gets the charset of plain text files.
+   *
+   * @return Charset, or <code>null</code> to find it from their byte order mark.
+   */
+  public Charset getCharset() {
+    return charset;
+  }
+
+  /**
+   * Gets the directory of the fragment cache.
+   *
+   * @return Directory, or <code>null</code> if none.
+   */
+  public Path getFragmentCacheDir() {
+    return fragmentCacheDir;
+  }
+
+  /**
+   * Gets the maximum size of the fragment cache.
+   *
+   * @return Size in bytes.
+   */
+  public long getFragmentCacheSize() {
+    return fragmentCacheSize;
+  }
+
+  /**
+   * Gets the directory of the cache of compiled PDF files.
+   *
+   * @return Directory, or <code>null</code> if none.
+   */
+  public Path getCacheDir() {
+    return cacheDir;
+  }
+
+  /**
+   * Gets the maximum size of the cache of compiled PDF files.
+   *
+   * @return Size in bytes.
+   */
+  public long getCacheSize() {
+    return cacheSize;
+  }
+
+  /**
+   * Gets the socket to run a daemon on.
+   *
+   * @return Socket file, or <code>null</code> if not running a daemon.
+   */
+  public Path getDaemonSocket() {
+    return daemonSocket;
+  }
+
+  /**
+   * Gets the socket of the daemon to send the files to.
+   *
+   * @return Socket file, or <code>null</code> if compiling locally.
+   */
+  public Path getConnectSocket() {
+    return connectSocket;
+  }
+
+  /**
+   * Gets the port to run an HTTP compile service on.
+   *
+   * @return Port, or <code>-1</code> if not running a service.
+   */
+  public int getHttpPort() {
+    return httpPort;
+  }
+
+  /**
+   * Gets the files and directories to compile.
+   *
+   * @return {@link List} of paths, in the order given.
+   */
+  public List<Path> getPaths() {
+    return paths;
+  }
+
+  /**
+   * Gets the value of an option.
+   *
+   * @param args  Command-line arguments.
+   * @param index Index of the value.
+   * @return Value.
+   * @throws IllegalArgumentException if the value is missing.
+   */
+  private static String getValue(String[] args, int index) {
+    if (index == args.length) {
+      throw new IllegalArgumentException("missing value for option '" + args[index - 1] + "'");
+    }
+    return args[index];
+  }
+
+  /**
+   * Gets the value of an option as a number in a range.
+   *
+   * @param args       Command-line arguments.
+   * @param index      Index of the value.
+   * @param min        Minimum value.
+   * @param max        Maximum value.
+   * @param rangeError Error message if the value is out of range, formatted with the value.
+   * @return Value.
+   * @throws IllegalArgumentException if the value is missing, not a number, or out of range.
+   */
+  private static long parseNumber(String[] args, int index, long min, long max,
+                                  String rangeError) {
+    final long value;
+    try {
+      value = Long.parseLong(getValue(args, index));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("'" + args[index] + "' is not a number", e);
+    }
+    if (value < min || value > max) {
+      throw new IllegalArgumentException(String.format(rangeError, args[index]));
+    }
+    return value;
+  }
+
+  /**
+   * Gets the long form of a short option.
+   *
+   * @param name Short option.
+   * @return Long option.
+   */
+  private static String getLongName(String name) {
+    return switch (name) {
+      case "-h" -> "--help";
+      case "-c" -> "--check";
+      case "-w" -> "--watch";
+      default -> "--jobs";
+    };
+  }
+}
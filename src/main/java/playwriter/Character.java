@@ -1,25 +1,38 @@
 package playwriter;
 
+import java.util.BitSet;
+
 /**
- * Represents a character.
+ * Represents a character. Whether it is on stage is stored in the play's presence bitset, at the
+ * character's id.
  *
  * @author Nicolas Almerge
  * @since 1.0
  */
 public final class Character implements CharacterView {
+  private final int id;
   private final String name;
   private final String description;
-  private boolean entered = false;
+  private final BitSet stage;
 
   /**
    * Constructor.
    *
+   * @param cid          Character id, in the play's cast.
    * @param cname        Character name.
    * @param cdescription Character description.
+   * @param onStage      Presence of the play's cast on stage, indexed by character id.
    */
-  public Character(String cname, String cdescription) {
+  public Character(int cid, String cname, String cdescription, BitSet onStage) {
+    id = cid;
     name = cname;
     description = (cdescription == null) ? "" : cdescription;
+    stage = onStage;
+  }
+
+  @Override
+  public int getId() {
+    return id;
   }
 
   @Override
@@ -34,7 +47,7 @@ public final class Character implements CharacterView {
 
   @Override
   public boolean hasEntered() {
-    return entered;
+    return stage.get(id);
   }
 
   /**
@@ -43,8 +56,9 @@ public final class Character implements CharacterView {
    * @throws PlayCompileTimeError if character was already on stage.
    */
   public void enter() throws PlayCompileTimeError {
-    Utils.check(!entered, "cannot make character " + name + " enter as it is already on stage");
-    entered = true;
+    Utils.check(!hasEntered(),
+        "cannot make character " + name + " enter as it is already on stage");
+    stage.set(id);
   }
 
   /**
@@ -53,14 +67,7 @@ public final class Character implements CharacterView {
    * @throws PlayCompileTimeError if character was already not on stage.
    */
   public void exit() throws PlayCompileTimeError {
-    Utils.check(entered, "cannot make character " + name + " exit as it is not on stage");
-    entered = false;
-  }
-
-  /**
-   * Makes the character exit. If the character was not already on stage, this has no effects.
-   */
-  public void forceExit() {
-    entered = false;
+    Utils.check(hasEntered(), "cannot make character " + name + " exit as it is not on stage");
+    stage.clear(id);
   }
 }
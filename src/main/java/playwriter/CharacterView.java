@@ -8,6 +8,13 @@ package playwriter;
  */
 public interface CharacterView {
 
+  /**
+   * Gets a character's id, in the play's cast.
+   *
+   * @return Character's id.
+   */
+  int getId();
+
   /**
    * Gets a character's name.
    *
@@ -0,0 +1,38 @@
+package playwriter;
+
+/**
+ * Represents the state of a single compilation, such as the line reached in the play file.
+ * Each {@link FileParser} owns its own context, so that any number of files can be compiled at the
+ * same time in the same process.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class CompilationContext {
+  private int lineNumber = 0;
+
+  /**
+   * Constructor.
+   */
+  public CompilationContext() {
+  }
+
+  /**
+   * Gets the current line number.
+   *
+   * @return Current line number, starting at <code>1</code>.
+   */
+  public int getLineNumber() {
+    return lineNumber;
+  }
+
+  /**
+   * Moves to the next line. The line number is not incremented past {@link Integer#MAX_VALUE} to
+   * avoid overflowing.
+   */
+  public void nextLine() {
+    if (lineNumber < Integer.MAX_VALUE) {
+      ++lineNumber;
+    }
+  }
+}
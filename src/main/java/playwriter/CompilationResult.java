@@ -0,0 +1,85 @@
+package playwriter;
+
+import java.nio.file.Path;
+
+/**
+ * Represents the result of the compilation of a single play file.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class CompilationResult {
+  private final Path input;
+  private final Path output;
+  private final String errorMessage;
+  private final long elapsedNanos;
+
+  /**
+   * Constructor.
+   *
+   * @param inputFile   Compiled play file.
+   * @param outputFile  Output PDF file, or <code>null</code> if none was written.
+   * @param errorMsg    Error message, or <code>null</code> if the compilation succeeded.
+   * @param elapsedTime Wall time spent compiling the file, in nanoseconds.
+   */
+  public CompilationResult(Path inputFile, Path outputFile, String errorMsg, long elapsedTime) {
+    input = inputFile;
+    output = outputFile;
+    errorMessage = errorMsg;
+    elapsedNanos = elapsedTime;
+  }
+
+  /**
+   * Gets the compiled play file.
+   *
+   * @return Compiled play file.
+   */
+  public Path getInput() {
+    return input;
+  }
+
+  /**
+   * Gets the output PDF file.
+   *
+   * @return Output PDF file, or <code>null</code> if none was written.
+   */
+  public Path getOutput() {
+    return output;
+  }
+
+  /**
+   * Checks whether the compilation succeeded.
+   *
+   * @return <code>true</code> if the compilation succeeded, <code>false</code> otherwise.
+   */
+  public boolean isSuccess() {
+    return errorMessage == null;
+  }
+
+  /**
+   * Gets the error message.
+   *
+   * @return Error message, or <code>null</code> if the compilation succeeded.
+   */
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+
+  /**
+   * Gets the wall time spent compiling the file.
+   *
+   * @return Wall time, in milliseconds.
+   */
+  public double getElapsedMillis() {
+    return elapsedNanos / 1_000_000.0;
+  }
+
+  /**
+   * Gets the wall time spent compiling the file.
+   *
+   * @return Wall time, in nanoseconds.
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+}
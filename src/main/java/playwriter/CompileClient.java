@@ -0,0 +1,100 @@
+package playwriter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a client of a {@link CompileDaemon}, which sends it play files to compile and reads
+ * back their results. The client does not load any of the parsing and layout code, so it starts
+ * quickly.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class CompileClient {
+  private static final int FIELD_COUNT = 4;
+  private final Path socket;
+
+  /**
+   * Constructor.
+   *
+   * @param socketPath Path of the socket file of the daemon.
+   */
+  public CompileClient(Path socketPath) {
+    socket = socketPath;
+  }
+
+  /**
+   * Compiles play files on the daemon.
+   *
+   * @param inputs Play files to compile.
+   * @return {@link List} of compilation results, in the same order as <code>inputs</code>.
+   * @throws IOException if the daemon could not be reached, or sent an invalid response.
+   */
+  public List<CompilationResult> compileAll(List<Path> inputs) throws IOException {
+    List<CompilationResult> results = new ArrayList<>(inputs.size());
+
+    try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+      Writer writer = new OutputStreamWriter(Channels.newOutputStream(channel),
+          StandardCharsets.UTF_8);
+      for (Path input : inputs) {
+        // The daemon may run in another directory
+        writer.write(input.toAbsolutePath() + "\n");
+      }
+      writer.flush();
+      channel.shutdownOutput();
+
+      BufferedReader reader = new BufferedReader(
+          new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+      for (Path input : inputs) {
+        final String line = reader.readLine();
+        if (line == null) {
+          throw new IOException("the daemon closed the connection before compiling '" + input
+              + "'");
+        }
+        results.add(parseResult(input, line));
+      }
+    }
+
+    return results;
+  }
+
+  /**
+   * Parses the response line of a compilation.
+   *
+   * @param input Play file, as given by the caller.
+   * @param line  Response line.
+   * @return Compilation result.
+   * @throws IOException if the line is invalid.
+   */
+  private static CompilationResult parseResult(Path input, String line) throws IOException {
+    final String[] fields = line.split(CompileDaemon.SEPARATOR, FIELD_COUNT);
+    if (fields.length != FIELD_COUNT) {
+      throw new IOException("invalid response from the daemon: '" + line + "'");
+    }
+
+    final long elapsedNanos;
+    try {
+      elapsedNanos = Long.parseLong(fields[1]);
+    } catch (NumberFormatException e) {
+      throw new IOException("invalid response from the daemon: '" + line + "'");
+    }
+
+    return switch (fields[0]) {
+      case CompileDaemon.OK -> new CompilationResult(input,
+          fields[3].isEmpty() ? null : Path.of(fields[3]), null, elapsedNanos);
+      case CompileDaemon.FAIL -> new CompilationResult(input, null, fields[3], elapsedNanos);
+      default -> throw new IOException("invalid response from the daemon: '" + line + "'");
+    };
+  }
+}
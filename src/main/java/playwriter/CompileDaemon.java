@@ -0,0 +1,198 @@
+package playwriter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Represents a long-lived compiler, which compiles the play files sent by clients over a Unix
+ * domain socket with a {@link BatchCompiler}. The JVM, the fonts and the caches stay warm between
+ * requests, so a client only pays for the compilation of its files.
+ *
+ * <p>The protocol is line-based UTF-8 text. A client sends the absolute path of each play file to
+ * compile on its own line, then shuts down its output. The daemon then compiles them, and answers
+ * with a line per file, in the same order, made of tab-separated fields:
+ * <ul>
+ *   <li><code>OK</code> or <code>FAIL</code>;</li>
+ *   <li>the wall time of the compilation, in nanoseconds;</li>
+ *   <li>the play file;</li>
+ *   <li>the output PDF file if it succeeded (empty if only checking), or the error message if it
+ *   failed (line breaks in the message are replaced by spaces).</li>
+ * </ul>
+ *
+ * <p>Each connection is handled on its own virtual thread, while the files of all connections are
+ * compiled on a single bounded pool, so that many clients do not run more compilations at the same
+ * time than a single one.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ * @see CompileClient
+ */
+public final class CompileDaemon {
+  /**
+   * Status of a successful compilation in a response.
+   */
+  public static final String OK = "OK";
+
+  /**
+   * Status of a failed compilation in a response.
+   */
+  public static final String FAIL = "FAIL";
+
+  /**
+   * Separator of the fields of a response.
+   */
+  public static final String SEPARATOR = "\t";
+
+  private final BatchCompiler compiler;
+  private final Path socket;
+  private final ExecutorService connectionThreads = Executors.newVirtualThreadPerTaskExecutor();
+  private final ExecutorService renderPool;
+  private volatile ServerSocketChannel server = null;
+  private volatile boolean stopped = false;
+
+  /**
+   * Constructor.
+   *
+   * @param batchCompiler Compiler of the requested files.
+   * @param socketPath    Path of the socket file.
+   * @param jobCount      Number of files compiled at the same time, for all clients.
+   * @throws IllegalArgumentException if <code>jobCount</code> is not positive.
+   */
+  public CompileDaemon(BatchCompiler batchCompiler, Path socketPath, int jobCount) {
+    if (jobCount < 1) {
+      throw new IllegalArgumentException("Error: job count must be positive.");
+    }
+    compiler = batchCompiler;
+    socket = socketPath;
+    renderPool = Executors.newFixedThreadPool(jobCount);
+  }
+
+  /**
+   * Serves requests until stopped. A socket file left by a daemon which did not stop cleanly is
+   * replaced, and the socket file is removed when the JVM exits.
+   *
+   * @param log Stream to print the result of each compilation to.
+   * @throws IOException if the socket could not be opened, or another daemon is using it.
+   */
+  public void serve(PrintStream log) throws IOException {
+    if (Files.exists(socket)) {
+      if (isRunning(socket)) {
+        throw new IOException("a daemon is already running on '" + socket + "'");
+      }
+      Files.delete(socket);
+    }
+
+    try (ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+      channel.bind(UnixDomainSocketAddress.of(socket));
+      socket.toFile().deleteOnExit();
+      server = channel;
+
+      while (!stopped) {
+        final SocketChannel client = channel.accept();
+        connectionThreads.execute(() -> handle(client, log));
+      }
+    } catch (AsynchronousCloseException e) {
+      // Closed by stop(), or by an interruption of the serving thread
+    } finally {
+      stop();
+      Files.deleteIfExists(socket);
+    }
+  }
+
+  /**
+   * Stops serving requests, by closing the socket the daemon is blocked on, without waiting for the
+   * requests in progress.
+   */
+  public void stop() {
+    stopped = true;
+    final ServerSocketChannel channel = server;
+    if (channel != null) {
+      try {
+        channel.close();
+      } catch (IOException ignored) {
+        // The daemon stops anyway
+      }
+    }
+    connectionThreads.shutdownNow();
+    renderPool.shutdownNow();
+  }
+
+  /**
+   * Checks whether a daemon accepts connections on a socket.
+   *
+   * @param socketPath Path of the socket file.
+   * @return <code>true</code> if a daemon is running, <code>false</code> otherwise.
+   */
+  private static boolean isRunning(Path socketPath) {
+    try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+      return channel.isConnected();
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Handles a client: reads its request, compiles its files and writes the response.
+   *
+   * @param client Client connection.
+   * @param log    Stream to print the result of each compilation to.
+   */
+  private void handle(SocketChannel client, PrintStream log) {
+    try (client) {
+      BufferedReader reader = new BufferedReader(
+          new InputStreamReader(Channels.newInputStream(client), StandardCharsets.UTF_8));
+      List<Path> inputs = new ArrayList<>();
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        if (!line.isEmpty()) {
+          inputs.add(Path.of(line));
+        }
+      }
+
+      Writer writer = new OutputStreamWriter(Channels.newOutputStream(client),
+          StandardCharsets.UTF_8);
+      for (CompilationResult result : compiler.compileAll(inputs, renderPool)) {
+        BatchCompiler.printResult(result, log);
+        writer.write(formatResult(result));
+      }
+      writer.flush();
+    } catch (IOException e) {
+      // The client is gone, nothing left to answer
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (RejectedExecutionException e) {
+      // The daemon is stopping, and the connection is closed without any answer
+    }
+  }
+
+  /**
+   * Formats the response line of a compilation.
+   *
+   * @param result Compilation result.
+   * @return Response line, with its line break.
+   */
+  private static String formatResult(CompilationResult result) {
+    final String detail = result.isSuccess()
+        ? ((result.getOutput() == null) ? "" : result.getOutput().toString())
+        : result.getErrorMessage().replace('\r', ' ').replace('\n', ' ');
+    return String.join(SEPARATOR, result.isSuccess() ? OK : FAIL,
+        String.valueOf(result.getElapsedNanos()), result.getInput().toString(), detail) + "\n";
+  }
+}
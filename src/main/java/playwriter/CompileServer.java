@@ -0,0 +1,273 @@
+package playwriter;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Represents an HTTP compile service, built on the HTTP server of the JDK. Clients
+ * <code>POST</code> a play file to <code>/compile</code>, and receive its PDF file. A plain text
+ * play is sent as <code>text/plain</code>, with its charset if not UTF-8, and a Word play as
+ * <code>application/vnd.openxmlformats-officedocument.wordprocessingml.document</code> or
+ * <code>application/msword</code>.
+ *
+ * <p>An invalid play is answered with status 422 and a JSON body listing its
+ * {@link PlayCompileTimeError} diagnostics, as
+ * <code>{"errors":[{"line":8,"message":"..."}]}</code>. A file which could not be read
+ * at all is answered the same way with status 400, and a line of <code>0</code>, and a file
+ * larger than 64 MB with status 413.
+ *
+ * <p>Each request runs on its own virtual thread, which reads the body into memory, so slow
+ * clients only hold cheap virtual threads. Parsing and layout, which use the CPU, run on a bounded
+ * pool of platform threads, with a {@link PlayCompiler} writing the PDF file to memory, and the
+ * PDF file is then sent back from the virtual thread. No temporary file is ever written.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class CompileServer {
+  /**
+   * Path of the compilation endpoint.
+   */
+  public static final String PATH = "/compile";
+
+  private static final String PDF_TYPE = "application/pdf";
+  private static final String JSON_TYPE = "application/json; charset=utf-8";
+  private static final String WORD_TYPE = "application/msword";
+  private static final String DOCX_TYPE =
+      "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+  private static final int BACKLOG = 1024;
+  private static final int MAX_BODY_SIZE = 64 * 1024 * 1024;
+  private final HttpServer server;
+  private final ExecutorService requestThreads = Executors.newVirtualThreadPerTaskExecutor();
+  private final ExecutorService renderPool;
+  private final CountDownLatch stopped = new CountDownLatch(1);
+
+  /**
+   * Constructor. The server is bound, but only answers once started.
+   *
+   * @param address  Address to listen on, with port <code>0</code> for any free port.
+   * @param jobCount Number of plays compiled at the same time.
+   * @throws IOException              if the server could not be bound.
+   * @throws IllegalArgumentException if <code>jobCount</code> is not positive.
+   */
+  public CompileServer(InetSocketAddress address, int jobCount) throws IOException {
+    if (jobCount < 1) {
+      throw new IllegalArgumentException("Error: job count must be positive.");
+    }
+    renderPool = Executors.newFixedThreadPool(jobCount);
+    server = HttpServer.create(address, BACKLOG);
+    server.createContext(PATH, this::handle);
+    server.setExecutor(requestThreads);
+  }
+
+  /**
+   * Starts answering requests.
+   */
+  public void start() {
+    server.start();
+  }
+
+  /**
+   * Gets the port the server listens on.
+   *
+   * @return Port number.
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Stops the server, without waiting for the requests in progress.
+   */
+  public void stop() {
+    server.stop(0);
+    requestThreads.shutdownNow();
+    renderPool.shutdownNow();
+    stopped.countDown();
+  }
+
+  /**
+   * Waits until the server is stopped.
+   *
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  public void awaitStop() throws InterruptedException {
+    stopped.await();
+  }
+
+  /**
+   * Handles a request.
+   *
+   * @param exchange Request and its response.
+   * @throws IOException if the response could not be sent.
+   */
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      if (!exchange.getRequestURI().getPath().equals(PATH)) {
+        exchange.sendResponseHeaders(404, -1);
+        return;
+      } else if (!exchange.getRequestMethod().equals("POST")) {
+        exchange.getResponseHeaders().set("Allow", "POST");
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+
+      final String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+      final boolean isPlainText = isPlainText(contentType);
+      final Charset charset;
+      try {
+        charset = isPlainText ? getCharset(contentType) : null;
+      } catch (IllegalArgumentException e) {
+        sendErrors(exchange, 400, 0, "unknown charset in '" + contentType + "'");
+        return;
+      }
+
+      final byte[] play;
+      try (InputStream body = exchange.getRequestBody()) {
+        play = body.readNBytes(MAX_BODY_SIZE + 1);
+      }
+      if (play.length > MAX_BODY_SIZE) {
+        sendErrors(exchange, 413, 0, "play is larger than " + MAX_BODY_SIZE + " bytes");
+        return;
+      }
+      compile(exchange, play, isPlainText ? SourceFormat.PLAIN_TEXT : SourceFormat.WORD,
+          charset);
+    }
+  }
+
+  /**
+   * Compiles a received play file on the render pool, and sends the response.
+   *
+   * @param exchange Request and its response.
+   * @param play     Received play file.
+   * @param format   Format of the play file.
+   * @param charset  Charset of a plain text file, or <code>null</code> to find it from its byte
+   *                 order mark and default to UTF-8.
+   * @throws IOException if the response could not be sent.
+   */
+  private void compile(HttpExchange exchange, byte[] play, SourceFormat format, Charset charset)
+      throws IOException {
+    final PlayCompiler compiler = new PlayCompiler(charset, RenderMode.SEQUENTIAL, null);
+    final ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+    try {
+      renderPool.submit(() -> {
+        compiler.compile(new ByteArrayInputStream(play), format, pdf);
+        return null;
+      }).get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof PlayCompileTimeError error) {
+        sendErrors(exchange, 422, error.getLineNumber(), error.getErrorMessage());
+      } else {
+        final Throwable cause = e.getCause();
+        sendErrors(exchange, 400, 0,
+            (cause.getMessage() == null) ? cause.toString() : cause.getMessage());
+      }
+      return;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      exchange.sendResponseHeaders(503, -1);
+      return;
+    }
+
+    exchange.getResponseHeaders().set("Content-Type", PDF_TYPE);
+    exchange.sendResponseHeaders(200, pdf.size());
+    try (OutputStream body = exchange.getResponseBody()) {
+      pdf.writeTo(body);
+    }
+  }
+
+  /**
+   * Sends a single diagnostic as a JSON list of errors.
+   *
+   * @param exchange Request and its response.
+   * @param status   HTTP status.
+   * @param line     Line of the error, or <code>0</code> if unknown.
+   * @param message  Error message, without any position.
+   * @throws IOException if the response could not be sent.
+   */
+  private static void sendErrors(HttpExchange exchange, int status, int line, String message)
+      throws IOException {
+    final byte[] json = ("{\"errors\":[{\"line\":" + line + ",\"message\":" + toJsonString(message)
+        + "}]}\n").getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+    exchange.sendResponseHeaders(status, json.length);
+    try (OutputStream body = exchange.getResponseBody()) {
+      body.write(json);
+    }
+  }
+
+  /**
+   * Quotes and escapes a JSON string.
+   *
+   * @param value Value.
+   * @return JSON string.
+   */
+  private static String toJsonString(String value) {
+    StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+    for (int i = 0; i < value.length(); ++i) {
+      final char c = value.charAt(i);
+      switch (c) {
+        case '"' -> builder.append("\\\"");
+        case '\\' -> builder.append("\\\\");
+        case '\n' -> builder.append("\\n");
+        case '\r' -> builder.append("\\r");
+        case '\t' -> builder.append("\\t");
+        default -> {
+          if (c < ' ') {
+            builder.append(String.format("\\u%04x", (int) c));
+          } else {
+            builder.append(c);
+          }
+        }
+      }
+    }
+    return builder.append('"').toString();
+  }
+
+  /**
+   * Checks whether a request body is a plain text play.
+   *
+   * @param contentType Content type of the request, or <code>null</code> if none.
+   * @return <code>false</code> for Word types, <code>true</code> otherwise.
+   */
+  private static boolean isPlainText(String contentType) {
+    if (contentType == null) {
+      return true;
+    }
+    final String type = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+    return !type.equals(DOCX_TYPE) && !type.equals(WORD_TYPE);
+  }
+
+  /**
+   * Gets the charset of a plain text request body.
+   *
+   * @param contentType Content type of the request, or <code>null</code> if none.
+   * @return Charset, or <code>null</code> if none is given.
+   * @throws IllegalArgumentException if the charset is unknown.
+   */
+  private static Charset getCharset(String contentType) {
+    if (contentType == null) {
+      return null;
+    }
+    for (String parameter : contentType.split(";")) {
+      final String[] pair = parameter.trim().split("=", 2);
+      if (pair.length == 2 && pair[0].trim().equalsIgnoreCase("charset")) {
+        return Charset.forName(pair[1].trim().replace("\"", ""));
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,293 @@
+package playwriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.LittleEndian;
+
+/**
+ * Represents a legacy Word 97-2003 (<code>.doc</code>) play file, read paragraph by paragraph.
+ * Only the piece table is loaded. The text of the main document is then streamed piece by piece
+ * from the <code>WordDocument</code> stream, so only the current paragraph is ever held in memory.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class DocSource implements LineSource {
+  private static final String WORD_DOCUMENT = "WordDocument";
+  private static final int WORD_IDENTIFIER = 0xA5EC;
+  private static final int MIN_WORD_97_VERSION = 0xC1;
+  private static final int FLAGS_OFFSET = 0x0A;
+  private static final int ENCRYPTED_FLAG = 0x0100;
+  private static final int TABLE_STREAM_FLAG = 0x0200;
+  private static final int FIB_BASE_SIZE = 32;
+  private static final int CCP_TEXT_INDEX = 3;
+  private static final int CLX_INDEX = 33;
+  private static final int MAX_CLX_SIZE = 64 * 1024 * 1024;
+  private static final byte PRC_TYPE = 0x01;
+  private static final byte PCDT_TYPE = 0x02;
+  private static final int PCD_SIZE = 8;
+  private static final int COMPRESSED_FLAG = 0x40000000;
+  private static final int FC_MASK = 0x3FFFFFFF;
+  private static final int BUFFER_SIZE = 8192;
+  private static final char NON_BREAKING_HYPHEN = (char) 0x2011;
+  private static final char[] CP1252 = createCp1252Table();
+  private final POIFSFileSystem fileSystem;
+  private final DirectoryNode root;
+  private final int[] pieceStarts;
+  private final int[] pieceOffsets;
+  private final boolean[] pieceCompressed;
+  private final int textLength;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private final StringBuilder paragraph = new StringBuilder();
+  private InputStream piece = null;
+  private int pieceIndex = -1;
+  private int pieceRemaining = 0;
+  private int bufferPosition = 0;
+  private int bufferLimit = 0;
+  private int position = 0;
+  private int fieldDepth = 0;
+  private int fieldCodeDepth = 0;
+
+  /**
+   * Constructor.
+   *
+   * @param fileName Name of the file to read.
+   * @throws IOException if the file could not be opened, or is not a supported Word document.
+   */
+  public DocSource(String fileName) throws IOException {
+    this(new POIFSFileSystem(new File(fileName), true), "'" + fileName + "'");
+  }
+
+  /**
+   * Constructor reading a stream. The compound file is read fully into memory, as its streams are
+   * scattered through it, but the text is still decoded paragraph by paragraph.
+   *
+   * @param stream Stream to read, closed once read.
+   * @throws IOException if the stream could not be read, or is not a supported Word document.
+   */
+  public DocSource(InputStream stream) throws IOException {
+    this(new POIFSFileSystem(stream), "input");
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param compoundFile Compound file of the document.
+   * @param name         Name of the document, for error messages.
+   * @throws IOException if the document is not a supported Word document.
+   */
+  private DocSource(POIFSFileSystem compoundFile, String name) throws IOException {
+    fileSystem = compoundFile;
+    try {
+      root = fileSystem.getRoot();
+      byte[] fib = readFib(name);
+      int flags = LittleEndian.getUShort(fib, FLAGS_OFFSET);
+      if ((flags & ENCRYPTED_FLAG) != 0) {
+        throw new IOException("Error: " + name + " is encrypted.");
+      }
+
+      // FibBase, then the 16-bit, 32-bit and then 64-bit arrays, each preceded by its count
+      int offset = FIB_BASE_SIZE;
+      offset += 2 + 2 * LittleEndian.getUShort(fib, offset);
+      int longCount = LittleEndian.getUShort(fib, offset);
+      textLength = LittleEndian.getInt(fib, offset + 2 + 4 * CCP_TEXT_INDEX);
+      offset += 2 + 4 * longCount;
+      int clxOffset = LittleEndian.getInt(fib, offset + 2 + 8 * CLX_INDEX);
+      int clxLength = LittleEndian.getInt(fib, offset + 2 + 8 * CLX_INDEX + 4);
+
+      String tableStream = (flags & TABLE_STREAM_FLAG) != 0 ? "1Table" : "0Table";
+      byte[] clx;
+      try (InputStream stream = root.createDocumentInputStream(tableStream)) {
+        IOUtils.skipFully(stream, clxOffset);
+        clx = IOUtils.toByteArray(stream, clxLength, MAX_CLX_SIZE);
+      }
+
+      // Skip the property modifiers to reach the piece table
+      int clxPosition = 0;
+      while (clx[clxPosition] == PRC_TYPE) {
+        clxPosition += 3 + LittleEndian.getShort(clx, clxPosition + 1);
+      }
+      if (clx[clxPosition] != PCDT_TYPE) {
+        throw new IOException("Error: " + name + " has no piece table.");
+      }
+      int pieceCount = (LittleEndian.getInt(clx, clxPosition + 1) - 4) / (4 + PCD_SIZE);
+      int cpStart = clxPosition + 5;
+      int pcdStart = cpStart + 4 * (pieceCount + 1);
+      pieceStarts = new int[pieceCount + 1];
+      pieceOffsets = new int[pieceCount];
+      pieceCompressed = new boolean[pieceCount];
+      for (int i = 0; i <= pieceCount; ++i) {
+        pieceStarts[i] = LittleEndian.getInt(clx, cpStart + 4 * i);
+      }
+      for (int i = 0; i < pieceCount; ++i) {
+        int fc = LittleEndian.getInt(clx, pcdStart + PCD_SIZE * i + 2);
+        pieceCompressed[i] = (fc & COMPRESSED_FLAG) != 0;
+        pieceOffsets[i] = pieceCompressed[i] ? (fc & FC_MASK) / 2 : fc & FC_MASK;
+      }
+    } catch (IOException | RuntimeException e) {
+      fileSystem.close();
+      throw (e instanceof IOException ioe) ? ioe
+          : new IOException("Error: " + name + " is not a valid Word document.", e);
+    }
+  }
+
+  @Override
+  public CharSequence nextLine() throws IOException {
+    paragraph.setLength(0);
+    boolean read = false;
+    int c;
+    while ((c = nextChar()) >= 0) {
+      read = true;
+      switch (c) {
+        case 0x0D, 0x07, 0x0C -> {
+          // Paragraph, table cell and page or section ends
+          return paragraph;
+        }
+        case 0x13 -> {
+          ++fieldDepth;
+          ++fieldCodeDepth;
+        }
+        case 0x14 -> fieldCodeDepth = Math.max(fieldCodeDepth - 1, 0);
+        case 0x15 -> {
+          if (fieldDepth > 0) {
+            fieldCodeDepth = Math.min(fieldCodeDepth, --fieldDepth);
+          }
+        }
+        case 0x09 -> append('\t');
+        case 0x0B -> append('\n');
+        case 0x1E -> append(NON_BREAKING_HYPHEN);
+        default -> {
+          if (c >= 0x20) {
+            append((char) c);
+          }
+        }
+      }
+    }
+    return read ? paragraph : null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (piece != null) {
+        piece.close();
+      }
+    } finally {
+      fileSystem.close();
+    }
+  }
+
+  /**
+   * Appends a character to the current paragraph, unless it is part of a field code.
+   *
+   * @param c Character to append.
+   */
+  private void append(char c) {
+    if (fieldCodeDepth == 0) {
+      paragraph.append(c);
+    }
+  }
+
+  /**
+   * Reads the next character of the main document.
+   *
+   * @return Next character, or <code>-1</code> if the end of the main document is reached.
+   * @throws IOException if the document could not be read.
+   */
+  private int nextChar() throws IOException {
+    while (pieceRemaining == 0) {
+      if (position >= textLength || !openNextPiece()) {
+        return -1;
+      }
+    }
+
+    --pieceRemaining;
+    ++position;
+    if (pieceCompressed[pieceIndex]) {
+      return CP1252[nextByte()];
+    }
+    int low = nextByte();
+    return low | (nextByte() << 8);
+  }
+
+  /**
+   * Reads the next byte of the current piece.
+   *
+   * @return Next byte.
+   * @throws IOException if the document is truncated.
+   */
+  private int nextByte() throws IOException {
+    if (bufferPosition == bufferLimit) {
+      bufferLimit = piece.read(buffer);
+      bufferPosition = 0;
+      if (bufferLimit <= 0) {
+        throw new IOException("Error: Word document is truncated.");
+      }
+    }
+    return buffer[bufferPosition++] & 0xFF;
+  }
+
+  /**
+   * Opens the next piece holding text of the main document.
+   *
+   * @return <code>true</code> if a piece was opened, <code>false</code> if there are none left.
+   * @throws IOException if the document could not be read.
+   */
+  private boolean openNextPiece() throws IOException {
+    if (piece != null) {
+      piece.close();
+      piece = null;
+    }
+    if (++pieceIndex >= pieceOffsets.length || pieceStarts[pieceIndex] >= textLength) {
+      return false;
+    }
+
+    piece = root.createDocumentInputStream(WORD_DOCUMENT);
+    IOUtils.skipFully(piece, pieceOffsets[pieceIndex]);
+    bufferPosition = 0;
+    bufferLimit = 0;
+    position = pieceStarts[pieceIndex];
+    pieceRemaining = Math.min(pieceStarts[pieceIndex + 1], textLength) - position;
+    return true;
+  }
+
+  /**
+   * Reads the file information block at the start of the <code>WordDocument</code> stream.
+   *
+   * @param name Name of the document, for error messages.
+   * @return File information block.
+   * @throws IOException if the document is not a Word 97-2003 document.
+   */
+  private byte[] readFib(String name) throws IOException {
+    byte[] fib;
+    try (InputStream stream = root.createDocumentInputStream(WORD_DOCUMENT)) {
+      // The block is at most a few hundred bytes long, whatever the Word version
+      fib = IOUtils.toByteArray(stream, Math.min(stream.available(), 4096));
+    }
+    if (LittleEndian.getUShort(fib, 0) != WORD_IDENTIFIER
+        || LittleEndian.getUShort(fib, 2) < MIN_WORD_97_VERSION) {
+      throw new IOException("Error: " + name + " is not a Word 97-2003 document.");
+    }
+    return fib;
+  }
+
+  /**
+   * Creates the table decoding compressed text, which is stored as Windows-1252.
+   *
+   * @return Table mapping each byte to its character.
+   */
+  private static char[] createCp1252Table() {
+    byte[] bytes = new byte[256];
+    for (int i = 0; i < bytes.length; ++i) {
+      bytes[i] = (byte) i;
+    }
+    return Charset.forName("windows-1252").decode(ByteBuffer.wrap(bytes)).toString()
+        .toCharArray();
+  }
+}
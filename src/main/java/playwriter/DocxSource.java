@@ -0,0 +1,282 @@
+package playwriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Represents a Word (<code>.docx</code>) play file, read paragraph by paragraph. The main document
+ * part is streamed from the archive with a pull parser, so only the current paragraph is ever held
+ * in memory. Only the paragraphs directly in the document body are read, as plays are never
+ * written in tables or text boxes.
+ *
+ * <p>A document in memory is streamed the same way from a {@link ZipInputStream}. Its main part is
+ * only buffered if it comes before the package relationships, which Word never does.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class DocxSource implements LineSource {
+  private static final String WORD_NAMESPACE =
+      "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+  private static final String PACKAGE_RELATIONSHIPS = "_rels/.rels";
+  private static final String OFFICE_DOCUMENT_TYPE = "/officeDocument";
+  private static final String DEFAULT_MAIN_PART = "word/document.xml";
+  private static final char NON_BREAKING_HYPHEN = (char) 0x2011;
+  private static final XMLInputFactory FACTORY = createFactory();
+  private final ZipFile zipFile;
+  private final InputStream input;
+  private final XMLStreamReader reader;
+  private final StringBuilder paragraph = new StringBuilder();
+  private int depth = 0;
+  private int bodyDepth = -1;
+
+  /**
+   * Constructor.
+   *
+   * @param fileName Name of the file to read.
+   * @throws IOException if the file could not be opened, or is not a Word document.
+   */
+  public DocxSource(String fileName) throws IOException {
+    zipFile = new ZipFile(fileName);
+    try {
+      ZipEntry mainPart = zipFile.getEntry(findMainPart(zipFile));
+      if (mainPart == null) {
+        throw new IOException("Error: '" + fileName + "' is not a Word document.");
+      }
+      input = zipFile.getInputStream(mainPart);
+      reader = FACTORY.createXMLStreamReader(input);
+    } catch (IOException | XMLStreamException | RuntimeException e) {
+      zipFile.close();
+      throw (e instanceof IOException ioe) ? ioe : new IOException(e);
+    }
+  }
+
+  /**
+   * Constructor reading a stream.
+   *
+   * @param stream Stream to read, closed with the source.
+   * @throws IOException if the stream could not be read, or is not a Word document.
+   */
+  public DocxSource(InputStream stream) throws IOException {
+    zipFile = null;
+    ZipInputStream zip = new ZipInputStream(stream);
+    try {
+      input = openMainPart(zip);
+      reader = FACTORY.createXMLStreamReader(input);
+    } catch (IOException | XMLStreamException | RuntimeException e) {
+      zip.close();
+      throw (e instanceof IOException ioe) ? ioe : new IOException(e);
+    }
+  }
+
+  @Override
+  public CharSequence nextLine() throws IOException {
+    try {
+      while (reader.hasNext()) {
+        int event = reader.next();
+        if (event == XMLStreamConstants.START_ELEMENT) {
+          ++depth;
+          if (isWord("body")) {
+            bodyDepth = depth;
+          } else if (depth == bodyDepth + 1 && isWord("p")) {
+            readParagraph();
+            return paragraph;
+          }
+        } else if (event == XMLStreamConstants.END_ELEMENT) {
+          --depth;
+        }
+      }
+      return null;
+    } catch (XMLStreamException e) {
+      throw new IOException(e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      reader.close();
+    } catch (XMLStreamException ignored) {
+      // The underlying stream is closed below anyway
+    } finally {
+      input.close();
+      if (zipFile != null) {
+        zipFile.close();
+      }
+    }
+  }
+
+  /**
+   * Reads the paragraph the reader is at into {@link DocxSource#paragraph}. Text is taken from the
+   * runs of the paragraph, including those in hyperlinks, fields, content controls and tracked
+   * insertions. Drawings, deleted text and the properties of content controls are skipped.
+   *
+   * @throws XMLStreamException if the document is malformed.
+   */
+  private void readParagraph() throws XMLStreamException {
+    paragraph.setLength(0);
+    int paragraphDepth = depth;
+    boolean inText = false;
+    while (true) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        ++depth;
+        if (!WORD_NAMESPACE.equals(reader.getNamespaceURI())) {
+          // Drawings, VML pictures and other embedded objects
+          skipElement();
+          continue;
+        }
+        switch (reader.getLocalName()) {
+          case "t" -> inText = true;
+          case "tab", "ptab" -> paragraph.append('\t');
+          case "br", "cr" -> paragraph.append('\n');
+          case "noBreakHyphen" -> paragraph.append(NON_BREAKING_HYPHEN);
+          case "sdtPr", "sdtEndPr", "del", "pict", "drawing", "object", "footnoteReference",
+               "endnoteReference" -> skipElement();
+          default -> {
+            // Only the text of the element is read, such as the runs of a content control
+          }
+        }
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        if (depth-- == paragraphDepth) {
+          return;
+        }
+        inText = false;
+      } else if (inText && (event == XMLStreamConstants.CHARACTERS
+          || event == XMLStreamConstants.CDATA)) {
+        paragraph.append(reader.getTextCharacters(), reader.getTextStart(),
+            reader.getTextLength());
+      }
+    }
+  }
+
+  /**
+   * Skips the element the reader is at, up to its end tag.
+   *
+   * @throws XMLStreamException if the document is malformed.
+   */
+  private void skipElement() throws XMLStreamException {
+    int elementDepth = depth;
+    while (depth >= elementDepth) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        ++depth;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        --depth;
+      }
+    }
+  }
+
+  /**
+   * Checks whether the reader is at a start tag of the Word namespace.
+   *
+   * @param localName Local name of the element.
+   * @return <code>true</code> if it is, <code>false</code> otherwise.
+   */
+  private boolean isWord(String localName) {
+    return localName.equals(reader.getLocalName())
+        && WORD_NAMESPACE.equals(reader.getNamespaceURI());
+  }
+
+  /**
+   * Finds the name of the main document part from the package relationships.
+   *
+   * @param file Word archive.
+   * @return Name of the main document part.
+   * @throws IOException if the relationships could not be read.
+   */
+  private static String findMainPart(ZipFile file) throws IOException {
+    ZipEntry relationships = file.getEntry(PACKAGE_RELATIONSHIPS);
+    if (relationships == null) {
+      return DEFAULT_MAIN_PART;
+    }
+
+    try (InputStream stream = file.getInputStream(relationships)) {
+      return readMainPart(stream);
+    }
+  }
+
+  /**
+   * Moves a Word archive stream to its main document part. The default part is buffered if it
+   * comes before the package relationships, as it may not be the main one.
+   *
+   * @param zip Word archive stream.
+   * @return Stream of the main document part.
+   * @throws IOException if the archive could not be read, or is not a Word document.
+   */
+  private static InputStream openMainPart(ZipInputStream zip) throws IOException {
+    String mainPart = null;
+    byte[] defaultPart = null;
+
+    for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+      final String name = entry.getName();
+      if (name.equals(PACKAGE_RELATIONSHIPS)) {
+        // The relationships reader does not close the archive stream
+        mainPart = readMainPart(zip);
+        if (defaultPart != null && mainPart.equals(DEFAULT_MAIN_PART)) {
+          return new ByteArrayInputStream(defaultPart);
+        }
+      } else if (name.equals(mainPart)) {
+        return zip;
+      } else if (mainPart == null && name.equals(DEFAULT_MAIN_PART)) {
+        defaultPart = zip.readAllBytes();
+      }
+    }
+
+    if (mainPart == null && defaultPart != null) {
+      return new ByteArrayInputStream(defaultPart);
+    }
+    throw new IOException("Error: input is not a Word document.");
+  }
+
+  /**
+   * Reads the name of the main document part from the package relationships.
+   *
+   * @param stream Stream of the package relationships, left open.
+   * @return Name of the main document part.
+   * @throws IOException if the relationships could not be read.
+   */
+  private static String readMainPart(InputStream stream) throws IOException {
+    try {
+      XMLStreamReader relReader = FACTORY.createXMLStreamReader(stream);
+      try {
+        while (relReader.hasNext()) {
+          if (relReader.next() == XMLStreamConstants.START_ELEMENT
+              && "Relationship".equals(relReader.getLocalName())) {
+            String type = relReader.getAttributeValue(null, "Type");
+            String target = relReader.getAttributeValue(null, "Target");
+            if (type != null && target != null && type.endsWith(OFFICE_DOCUMENT_TYPE)) {
+              return target.startsWith("/") ? target.substring(1) : target;
+            }
+          }
+        }
+      } finally {
+        relReader.close();
+      }
+    } catch (XMLStreamException e) {
+      throw new IOException(e);
+    }
+    return DEFAULT_MAIN_PART;
+  }
+
+  /**
+   * Creates the factory of pull parsers, with external entities disabled.
+   *
+   * @return Factory of pull parsers.
+   */
+  private static XMLInputFactory createFactory() {
+    XMLInputFactory factory = XMLInputFactory.newFactory();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+    return factory;
+  }
+}
@@ -7,16 +7,14 @@ import static playwriter.Utils.SUBARGUMENT_START;
 import static playwriter.Utils.check;
 import static playwriter.Utils.failWith;
 
-import java.io.BufferedReader;
-import java.io.FileInputStream;
-import java.io.FileReader;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.EnumSet;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
-import java.util.regex.Pattern;
-import org.apache.poi.xwpf.usermodel.XWPFDocument;
-import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.poifs.filesystem.FileMagic;
 
 /**
  * Represents a file parser.
@@ -25,18 +23,28 @@ import org.apache.poi.xwpf.usermodel.XWPFParagraph;
  * @since 1.0
  */
 public final class FileParser {
-  private static final Pattern WS_REGEX = Pattern.compile("\\s+");
-  private final BufferedReader fp;
-  private final FileInputStream wordFp;
-  private final List<XWPFParagraph> paragraphs;
+  private static final Set<Keyword> LINE_KEYWORDS = EnumSet.of(
+      Keyword.BEGIN, Keyword.CURTAIN, Keyword.NEWLINE, Keyword.NEWPAGE, Keyword.ACT,
+      Keyword.SCENE, Keyword.ENTER, Keyword.EXIT
+  );
+  private final LineSource source;
   private final Play play;
-  private final LineParser lineParser = new LineParser();
-  private int currParagraphIndex = 0;
+  private final PlayRenderer playRenderer;
+  private final String outputFile;
+  private final OutputStream outputStream;
+  private final RenderMode renderMode;
+  private final ActMerger actMerger;
+  private final LineLexer lexer = new LineLexer();
+  private final CompilationContext context = new CompilationContext();
   private CharacterView previousChar = null;
   private boolean newScene = false;
+  private PdfRenderer pdfRenderer = null;
+  private PdfRenderer pipelinedOutput = null;
+  private String revision = null;
 
   /**
-   * Represents a file parser.
+   * Represents a file parser writing the play to a PDF file. The play is laid out on its own
+   * thread while it is parsed, through a {@link PipelinedRenderer}.
    *
    * @param inputFileName  Input file name.
    * @param outputFileName Output file name.
@@ -47,61 +55,314 @@ public final class FileParser {
    */
   public FileParser(String inputFileName, String outputFileName, boolean isPlainText)
       throws IOException {
-    if (isPlainText) {
-      fp = new BufferedReader(new FileReader(inputFileName));
-      wordFp = null;
-      paragraphs = null;
+    this(inputFileName, outputFileName, isPlainText, null);
+  }
+
+  /**
+   * Represents a file parser writing the play to a PDF file, with a given plain text charset.
+   *
+   * @param inputFileName  Input file name.
+   * @param outputFileName Output file name.
+   * @param isPlainText    <code>true</code> if the file is plain text, <code>false</code>
+   *                       otherwise.
+   * @param charset        Charset of a plain text file, or <code>null</code> to find it from its
+   *                       byte order mark and default to UTF-8.
+   * @throws IOException              if file reading failed.
+   * @throws IllegalArgumentException if file is blank.
+   */
+  public FileParser(String inputFileName, String outputFileName, boolean isPlainText,
+                    Charset charset) throws IOException {
+    this(inputFileName, outputFileName, isPlainText, charset, RenderMode.PIPELINED);
+  }
+
+  /**
+   * Represents a file parser writing the play to a PDF file, laid out in a given way. Every
+   * {@link RenderMode} writes the same pages.
+   *
+   * @param inputFileName  Input file name.
+   * @param outputFileName Output file name.
+   * @param isPlainText    <code>true</code> if the file is plain text, <code>false</code>
+   *                       otherwise.
+   * @param charset        Charset of a plain text file, or <code>null</code> to find it from its
+   *                       byte order mark and default to UTF-8.
+   * @param mode           Way the play is laid out.
+   * @throws IOException              if file reading failed.
+   * @throws IllegalArgumentException if file is blank.
+   */
+  public FileParser(String inputFileName, String outputFileName, boolean isPlainText,
+                    Charset charset, RenderMode mode) throws IOException {
+    this(openSource(inputFileName, isPlainText, charset), null, outputFileName, null, mode, null);
+  }
+
+  /**
+   * Represents a file parser writing the play to a PDF file, whose acts are laid out in parallel
+   * by a given {@link ActMerger}. This is how acts laid out by previous compilations are reused.
+   *
+   * @param inputFileName  Input file name.
+   * @param outputFileName Output file name.
+   * @param isPlainText    <code>true</code> if the file is plain text, <code>false</code>
+   *                       otherwise.
+   * @param charset        Charset of a plain text file, or <code>null</code> to find it from its
+   *                       byte order mark and default to UTF-8.
+   * @param merger         Writer laying out and merging the acts.
+   * @throws IOException              if file reading failed.
+   * @throws IllegalArgumentException if file is blank.
+   */
+  public FileParser(String inputFileName, String outputFileName, boolean isPlainText,
+                    Charset charset, ActMerger merger) throws IOException {
+    this(openSource(inputFileName, isPlainText, charset), null, outputFileName, null,
+        RenderMode.PARALLEL_ACTS, merger);
+  }
+
+  /**
+   * Represents a file parser which only checks the play. No PDF objects are ever created.
+   *
+   * @param inputFileName Input file name.
+   * @param isPlainText   <code>true</code> if the file is plain text, <code>false</code>
+   *                      otherwise.
+   * @throws IOException              if file reading failed.
+   * @throws IllegalArgumentException if file is blank.
+   */
+  public FileParser(String inputFileName, boolean isPlainText) throws IOException {
+    this(inputFileName, isPlainText, (Charset) null);
+  }
+
+  /**
+   * Represents a file parser which only checks the play, with a given plain text charset.
+   *
+   * @param inputFileName Input file name.
+   * @param isPlainText   <code>true</code> if the file is plain text, <code>false</code>
+   *                      otherwise.
+   * @param charset       Charset of a plain text file, or <code>null</code> to find it from its
+   *                      byte order mark and default to UTF-8.
+   * @throws IOException              if file reading failed.
+   * @throws IllegalArgumentException if file is blank.
+   */
+  public FileParser(String inputFileName, boolean isPlainText, Charset charset)
+      throws IOException {
+    this(openSource(inputFileName, isPlainText, charset), new NoOpRenderer(), null, null, null,
+        null);
+  }
+
+  /**
+   * Represents a file parser sending the play to a given renderer as it is parsed.
+   *
+   * @param inputFileName Input file name.
+   * @param isPlainText   <code>true</code> if the file is plain text, <code>false</code>
+   *                      otherwise.
+   * @param renderer      Renderer to send the play to.
+   * @throws IOException              if file reading failed.
+   * @throws IllegalArgumentException if file is blank.
+   */
+  public FileParser(String inputFileName, boolean isPlainText, PlayRenderer renderer)
+      throws IOException {
+    this(openSource(inputFileName, isPlainText, null), renderer, null, null, null, null);
+  }
+
+  /**
+   * Represents a parser reading a play from a given source, and writing it to a PDF stream, laid
+   * out in a given way. Closing with a fail message does not write any fail message to the
+   * stream.
+   *
+   * @param input  Source of the lines of the play, closed once read.
+   * @param output Output PDF stream, closed once written.
+   * @param mode   Way the play is laid out.
+   * @param merger Writer of the acts in {@link RenderMode#PARALLEL_ACTS}, or <code>null</code> to
+   *               share one among parsers, using one thread per core without any cache.
+   * @throws IOException              if reading failed.
+   * @throws IllegalArgumentException if the play is blank.
+   */
+  public FileParser(LineSource input, OutputStream output, RenderMode mode, ActMerger merger)
+      throws IOException {
+    this(input, null, null, output, mode, merger);
+  }
+
+  /**
+   * Represents a parser reading a play from a given source, and sending it to a given renderer as
+   * it is parsed.
+   *
+   * @param input    Source of the lines of the play, closed once read.
+   * @param renderer Renderer to send the play to.
+   * @throws IOException              if reading failed.
+   * @throws IllegalArgumentException if the play is blank.
+   */
+  public FileParser(LineSource input, PlayRenderer renderer) throws IOException {
+    this(input, renderer, null, null, null, null);
+  }
+
+  /**
+   * Represents a file parser.
+   *
+   * @param input          Source of the lines of the play.
+   * @param renderer       Renderer to send the play to, or <code>null</code> to lay it out in
+   *                       the output PDF.
+   * @param outputFileName Output PDF file name, or <code>null</code> if none.
+   * @param output         Output PDF stream, or <code>null</code> if none.
+   * @param mode           Way the play is laid out in the output PDF, or <code>null</code> if
+   *                       none.
+   * @param merger         Writer of the acts in {@link RenderMode#PARALLEL_ACTS}, or
+   *                       <code>null</code> to share one among parsers, using one thread per
+   *                       core without any cache.
+   * @throws IOException              if reading failed.
+   * @throws IllegalArgumentException if the play is blank.
+   */
+  private FileParser(LineSource input, PlayRenderer renderer, String outputFileName,
+                     OutputStream output, RenderMode mode, ActMerger merger)
+      throws IOException {
+    source = input;
+    outputFile = outputFileName;
+    outputStream = output;
+    renderMode = mode;
+    actMerger = (mode == RenderMode.PARALLEL_ACTS && merger == null)
+        ? DefaultMerger.INSTANCE : merger;
+    try {
+      getNextLine();
+      if (lexer.consumed()) {
+        throw new IllegalArgumentException("Error: input file is blank.");
+      }
+    } catch (IOException | RuntimeException e) {
+      source.close();
+      throw e;
+    }
+
+    // The output is only opened once the input is known not to be blank
+    if (renderer != null) {
+      playRenderer = renderer;
+    } else if (mode == RenderMode.PIPELINED) {
+      pipelinedOutput = openPdfRenderer();
+      playRenderer = new PipelinedRenderer(pipelinedOutput);
     } else {
-      fp = null;
-      wordFp = new FileInputStream(inputFileName);
-      paragraphs = new XWPFDocument(wordFp).getParagraphs();
+      playRenderer = new PlayScriptBuilder();
     }
-    play = new Play(outputFileName);
-    Counter.reset();
-    getNextLine();
-    if (lineParser.consumed()) {
-      throw new IllegalArgumentException("Error: input file is blank.");
+    play = new Play(playRenderer);
+  }
+
+  /**
+   * Sets the revision of the play, such as a hash of its file, from which the half of the PDF
+   * document id which changes with every revision is derived. It must be set before parsing.
+   * Without it, the sequential and parallel layouts derive it from the parsed play, and the
+   * pipelined one, which opens the document before the play is read, keeps the permanent id.
+   *
+   * @param playRevision Revision of the play.
+   */
+  public void setRevision(String playRevision) {
+    revision = playRevision;
+    if (pipelinedOutput != null) {
+      // Read by the render thread when the play begins, which the pipeline orders after this
+      pipelinedOutput.setRevision(playRevision);
     }
   }
 
   /**
-   * Parses the whole file. The file is read line by line via a {@link BufferedReader} if the file
-   * is a text file, and read from memory otherwise.
+   * Parses the whole file. The file is read line by line via its {@link LineSource}, so only the
+   * current line is held in memory.
    *
    * @throws IOException          if a line reading failed.
-   * @throws PlayCompileTimeError if option parsing failed.
+   * @throws PlayCompileTimeError if option parsing failed, positioned at the failing line.
    */
   public void parseAll() throws IOException, PlayCompileTimeError {
-    parseHeaders();
-    while (!lineParser.consumed()) {
-      parseCurrentLine();
-      getNextLine();
+    try {
+      parseHeaders();
+      while (!lexer.consumed()) {
+        parseCurrentLine();
+        getNextLine();
+      }
+    } catch (PlayCompileTimeError e) {
+      throw e.at(context);
     }
   }
 
   /**
-   * Closes and outputs the PDF file.
+   * Closes and outputs the PDF file. When only checking the play, this checks it has properly
+   * ended.
    *
    * @throws IOException if file closing failed.
    * @throws PlayCompileTimeError if play could not be closed because it is not finished.
    */
   public void output() throws IOException, PlayCompileTimeError {
     closeFile();
-    play.outputPlay();
+    try {
+      play.outputPlay();
+    } catch (PlayCompileTimeError e) {
+      throw e.at(context);
+    }
+
+    final boolean hasOutput = outputFile != null || outputStream != null;
+    if (hasOutput && playRenderer instanceof PlayScriptBuilder builder) {
+      if (renderMode == RenderMode.PARALLEL_ACTS) {
+        if (outputStream != null) {
+          actMerger.write(builder.getScript(), outputStream, revision);
+        } else {
+          actMerger.write(builder.getScript(), outputFile, revision);
+        }
+      } else {
+        pdfRenderer = openPdfRenderer();
+        pdfRenderer.setRevision(
+            (revision == null) ? ActMerger.getPlayKey(builder.getScript()) : revision);
+        builder.getScript().render(pdfRenderer);
+      }
+    }
   }
 
   /**
-   * Closes the file if possible, and writes a fail message on the output PDF.
+   * Closes the file if possible, and drops the output PDF. An output PDF file is only replaced
+   * once complete, so it is left as it was before the compilation.
    */
-  public void closePlayWithFailMessage() {
+  public void abort() {
     try {
       closeFile();
     } catch (IOException ignored) {
       // Do nothing if file could not be closed
     }
 
-    // Write a fail message in the PDF output
-    play.closePdfWithFailMessage();
+    play.abort();
+    if (pdfRenderer != null) {
+      pdfRenderer.abort();
+    }
+  }
+
+  /**
+   * Closes the file if possible, and replaces the output PDF file, if any, with a fail message.
+   */
+  public void closePlayWithFailMessage() {
+    abort();
+    if (outputFile != null) {
+      PdfRenderer.writeFailMessage(outputFile);
+    }
+  }
+
+  /**
+   * Gets the parsed play, once fully parsed and output.
+   *
+   * @return Parsed play.
+   * @throws IllegalStateException if the play is not parsed into a {@link PlayScript}, or has not
+   *                               been output yet.
+   */
+  public PlayScript getScript() {
+    if (!(playRenderer instanceof PlayScriptBuilder builder)) {
+      throw new IllegalStateException("Error: play is not parsed into a script.");
+    }
+    return builder.getScript();
+  }
+
+  /**
+   * Gets the context of the compilation, which holds the position reached in the file.
+   *
+   * @return Compilation context.
+   */
+  public CompilationContext getContext() {
+    return context;
+  }
+
+  /**
+   * Reads the next non-blank line without parsing it. This is only used to measure reading.
+   *
+   * @return Next line, or <code>null</code> if the end of the file is reached.
+   * @throws IOException if the line reading failed.
+   */
+  String readNextLine() throws IOException {
+    getNextLine();
+    return lexer.consumed() ? null : lexer.getLine();
   }
 
   /**
@@ -111,40 +372,67 @@ public final class FileParser {
    */
   private void getNextLine() throws IOException {
     do {
-      String line;
-      if (fp != null) {
-        line = fp.readLine();
-      } else {
-        line = (currParagraphIndex < paragraphs.size())
-            ? paragraphs.get(currParagraphIndex++).getParagraphText() : null;
-      }
-
+      CharSequence line = source.nextLine();
       if (line == null) {
-        lineParser.updateLine("");
+        lexer.clear();
         return;
       }
 
-      Counter.increment();
-      line = WS_REGEX.matcher(line.strip()).replaceAll(" ");
-      if (!line.isEmpty()) {
-        lineParser.updateLine(line);
+      context.nextLine();
+      lexer.updateLine(line);
+      if (!lexer.consumed()) {
         return;
       }
     } while (true);
   }
 
+  /**
+   * Opens the renderer of the output PDF.
+   *
+   * @return PDF renderer.
+   * @throws IOException if the output could not be opened.
+   */
+  private PdfRenderer openPdfRenderer() throws IOException {
+    return (outputStream != null) ? new PdfRenderer(outputStream, true)
+        : new PdfRenderer(outputFile);
+  }
+
+  /**
+   * Opens a play file.
+   *
+   * @param fileName    Name of the file.
+   * @param isPlainText <code>true</code> if the file is plain text, <code>false</code> otherwise.
+   * @param charset     Charset of a plain text file, or <code>null</code> to find it from its
+   *                    byte order mark and default to UTF-8.
+   * @return Source of the lines of the file.
+   * @throws IOException if the file could not be opened.
+   */
+  private static LineSource openSource(String fileName, boolean isPlainText, Charset charset)
+      throws IOException {
+    return isPlainText ? new PlainTextSource(fileName, charset) : openWordFile(fileName);
+  }
+
+  /**
+   * Opens a Word file, whose format is found from its content rather than its extension.
+   *
+   * @param fileName Name of the Word file.
+   * @return Source of the lines of the file.
+   * @throws IOException if the file could not be opened.
+   */
+  private static LineSource openWordFile(String fileName) throws IOException {
+    if (FileMagic.valueOf(new File(fileName)) == FileMagic.OLE2) {
+      return new DocSource(fileName);
+    }
+    return new DocxSource(fileName);
+  }
+
   /**
    * Closes the file.
    *
    * @throws IOException if file closing failed.
    */
   private void closeFile() throws IOException {
-    if (fp != null) {
-      fp.close();
-    }
-    if (wordFp != null) {
-      wordFp.close();
-    }
+    source.close();
   }
 
   /**
@@ -157,8 +445,8 @@ public final class FileParser {
     boolean charsSet = false;
     boolean optionsSet = false;
 
-    while (!lineParser.consumed()) {
-      Pair pair = ArgumentPair.getFrom(lineParser.getLine());
+    while (!lexer.consumed()) {
+      Pair pair = ArgumentPair.getFrom(lexer.getLine());
       String name = pair.getFirstArgument();
       String value = pair.getSecondArgument();
       final String failMsg = "can only set 'AUTHOR:', 'TITLE:', 'CHARACTERS:' or 'OPTIONS:' before "
@@ -205,12 +493,12 @@ public final class FileParser {
   private void parseCharacters() throws IOException, PlayCompileTimeError {
     do {
       getNextLine();
-      if (lineParser.consumed() || lineParser.getLine().charAt(0) != SUBARGUMENT_START) {
+      if (lexer.consumed() || lexer.firstChar() != SUBARGUMENT_START) {
         break;
       }
 
-      lineParser.updateLine(lineParser.getLine().substring(1));
-      play.addCharacter(ArgumentPair.getFrom(lineParser.getLine()));
+      lexer.skipFirstChar();
+      play.addCharacter(ArgumentPair.getFrom(lexer.getLine()));
     } while (true);
 
     check(play.hasCharacters(), "no characters defined");
@@ -226,15 +514,14 @@ public final class FileParser {
     Set<String> modified = new HashSet<>();
     do {
       getNextLine();
-      if (lineParser.consumed() || lineParser.getLine().charAt(0) != SUBARGUMENT_START) {
+      if (lexer.consumed() || lexer.firstChar() != SUBARGUMENT_START) {
         break;
       }
 
-      lineParser.updateLine(lineParser.getLine().substring(1));
-      String newLine = lineParser.getLine();
-      check(!newLine.isEmpty(), "option line is empty");
+      lexer.skipFirstChar();
+      check(!lexer.consumed(), "option line is empty");
 
-      play.modifyOption(ArgumentPair.getFrom(newLine), modified);
+      play.modifyOption(ArgumentPair.getFrom(lexer.getLine()), modified);
     } while (true);
   }
 
@@ -244,126 +531,102 @@ public final class FileParser {
    * @throws PlayCompileTimeError if parsing failed.
    */
   private void parseCurrentLine() throws IOException, PlayCompileTimeError {
-    String fullLine = lineParser.getLine();
-
-    if (fullLine.charAt(0) == STAGE_DIR_START) {
-      fullLine = fullLine.substring(1).stripLeading();
-      play.writeStageDirections(fullLine);
+    if (lexer.firstChar() == STAGE_DIR_START) {
+      lexer.skipFirstChar();
+      play.writeStageDirections(lexer.getLine());
       return;
     }
 
-    String firstArgument = lineParser.getNextArgument().toUpperCase();
-
-    if (firstArgument.equals("ONSTAGE")) {
+    final Keyword keyword = lexer.firstKeyword();
+    if (keyword == Keyword.ONSTAGE) {
+      lexer.skipArgument();
       check(newScene, "ONSTAGE can only be used after a new scene");
-      checkOneOrMoreArguments("ONSTAGE");
+      checkOneOrMoreArguments(keyword);
       newScene = false;
-      play.parseAction(lineParser, new PlayOnStageAction(play), new PlayOnStageAllAction(play));
+      play.parseAction(lexer, new PlayOnStageAction(play), new PlayOnStageAllAction(play));
       return;
     }
 
-    if (fullLine.equalsIgnoreCase("THE END")) {
+    if (lexer.restEqualsIgnoreCase("THE END")) {
       play.end();
       return;
     }
 
-    switch (firstArgument) {
-      case "BEGIN" -> {
-        checkSingleArgument(firstArgument);
-        play.begin();
-        return;
-      }
-      case "CURTAIN" -> {
-        checkSingleArgument(firstArgument);
-        play.curtain();
-        return;
-      }
-      case "NEWLINE" -> {
-        checkSingleArgument(firstArgument);
-        play.newLine();
-        return;
-      }
-      case "NEWPAGE" -> {
-        checkSingleArgument(firstArgument);
-        play.newPage();
-        return;
-      }
-      case "ACT" -> {
-        checkOneOrMoreArguments(firstArgument);
-        play.setAct(ArgumentPair.getFrom(lineParser.getLine()));
-        return;
-      }
-      case "SCENE" -> {
-        checkOneOrMoreArguments(firstArgument);
-        previousChar = null;
-        play.setScene(ArgumentPair.getFrom(lineParser.getLine()));
-        newScene = true;
-        return;
-      }
-      case "ENTER" -> {
-        checkOneOrMoreArguments(firstArgument);
-        play.parseAction(lineParser, new PlayEnterAction(play), new PlayEnterAllAction(play));
-        newScene = false;
-        previousChar = null;
-        return;
-      }
-      case "EXIT" -> {
-        checkOneOrMoreArguments(firstArgument);
-        play.parseAction(lineParser, new PlayExitAction(play), new PlayExitAllAction(play));
-        newScene = false;
-        previousChar = null;
-        return;
-      }
-      default -> {
+    if (LINE_KEYWORDS.contains(keyword)) {
+      lexer.skipArgument();
+      switch (keyword) {
+        case BEGIN -> {
+          checkSingleArgument(keyword);
+          play.begin();
+        }
+        case CURTAIN -> {
+          checkSingleArgument(keyword);
+          play.curtain();
+        }
+        case NEWLINE -> {
+          checkSingleArgument(keyword);
+          play.newLine();
+        }
+        case NEWPAGE -> {
+          checkSingleArgument(keyword);
+          play.newPage();
+        }
+        case ACT -> {
+          checkOneOrMoreArguments(keyword);
+          play.setAct(ArgumentPair.getFrom(lexer.getLine()));
+        }
+        case SCENE -> {
+          checkOneOrMoreArguments(keyword);
+          previousChar = null;
+          play.setScene(ArgumentPair.getFrom(lexer.getLine()));
+          newScene = true;
+        }
+        case ENTER -> {
+          checkOneOrMoreArguments(keyword);
+          play.parseAction(lexer, new PlayEnterAction(play), new PlayEnterAllAction(play));
+          newScene = false;
+          previousChar = null;
+        }
+        case EXIT -> {
+          checkOneOrMoreArguments(keyword);
+          play.parseAction(lexer, new PlayExitAction(play), new PlayExitAllAction(play));
+          newScene = false;
+          previousChar = null;
+        }
+        default -> {
+        }
       }
+      return;
     }
 
-    boolean offStage;
-
-    if (firstArgument.equals("OFFSTAGE")) {
-      checkOneOrMoreArguments("OFFSTAGE");
-      fullLine = lineParser.getLine();
-      offStage = true;
-    } else {
-      offStage = false;
+    boolean offStage = keyword == Keyword.OFFSTAGE;
+    if (offStage) {
+      lexer.skipArgument();
+      checkOneOrMoreArguments(keyword);
     }
 
-    Pair colon = ArgumentPair.getFrom(fullLine);
-    Pair arrow = ArgumentPair.getFrom(fullLine, INDENTED_SPEECH_START);
+    // The speech is split at the first ':' or '>', whichever comes first
+    int separator = lexer.findSpeechSeparator();
     check(
-        colon.getSecondArgument() != null || arrow.getSecondArgument() != null,
+        separator != -1,
         "line must either contain a '" + ARG_SEPARATOR + "' or '" + INDENTED_SPEECH_START
             + "' character to denote a speech, or start by a '" + STAGE_DIR_START
             + "' character to denote a stage direction"
     );
 
-    String charName;
-    String content;
+    lexer.tokenBefore(separator);
+    String content = lexer.getTextAfter(separator);
+    boolean whiteSpaces = lexer.charAt(separator) == INDENTED_SPEECH_START;
     CharacterView character;
-    boolean whiteSpaces;
-
-    if (arrow.getSecondArgument() == null) {
-      charName = colon.getFirstArgument();
-      content = colon.getSecondArgument();
-      whiteSpaces = false;
-    } else if (colon.getSecondArgument() == null || arrow.getSplitIndex() < colon.getSplitIndex()) {
-      charName = arrow.getFirstArgument();
-      content = arrow.getSecondArgument();
-      whiteSpaces = true;
-    } else {
-      charName = colon.getFirstArgument();
-      content = colon.getSecondArgument();
-      whiteSpaces = false;
-    }
 
-    if (charName.isEmpty()) {
+    if (lexer.tokenIsEmpty()) {
       check(previousChar != null, "cannot use '" + ARG_SEPARATOR
           + "' without anything before as the first line of a scene or after 'ENTER' or 'EXIT'"
       );
       character = previousChar;
       offStage = !character.hasEntered();
     } else {
-      character = play.findCharacter(charName);
+      character = play.findCharacter(lexer);
     }
 
     check(!content.isEmpty(), "cannot write empty speech for character " + character.getName());
@@ -384,9 +647,9 @@ public final class FileParser {
    * @param keyword Keyword the line should start with.
    * @throws PlayCompileTimeError if assertion failed.
    */
-  private void checkSingleArgument(String keyword) throws PlayCompileTimeError {
+  private void checkSingleArgument(Keyword keyword) throws PlayCompileTimeError {
     check(
-        lineParser.consumed(),
+        lexer.consumed(),
         String.format("'%s' keyword has to be alone on its line", keyword)
     );
   }
@@ -397,10 +660,19 @@ public final class FileParser {
    * @param keyword Keyword the line should start with.
    * @throws PlayCompileTimeError if assertion failed.
    */
-  private void checkOneOrMoreArguments(String keyword) throws PlayCompileTimeError {
+  private void checkOneOrMoreArguments(Keyword keyword) throws PlayCompileTimeError {
     check(
-        !lineParser.consumed(),
+        !lexer.consumed(),
         String.format("cannot use '%s' keyword without any characters", keyword)
     );
   }
+
+  /**
+   * Holds the writer of the acts of the parsers not given any, created on first use. Its worker
+   * threads are shared by all those parsers, so that each compilation does not start its own.
+   */
+  private static final class DefaultMerger {
+    private static final ActMerger INSTANCE =
+        new ActMerger(Runtime.getRuntime().availableProcessors());
+  }
 }
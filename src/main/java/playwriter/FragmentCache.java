@@ -0,0 +1,183 @@
+package playwriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Represents an on-disk cache of laid out parts of plays, each kept as a PDF file named after the
+ * key of its content. Keys are computed by {@link ActMerger}, so that a part is only reused when
+ * everything its layout depends on is unchanged.
+ *
+ * <p>The total size of the cache is bounded: every edit of an act lays out a new part, so once it
+ * is exceeded, the least recently used parts are removed. Use times are kept as the modification
+ * times of the files, so they outlast the process.
+ *
+ * <p>Entries are written to a temporary file first, then moved into place atomically, so the
+ * cache can be shared by concurrent compilations, and never holds a partly written entry.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class FragmentCache {
+  /**
+   * Default maximum total size of the cached parts, in bytes.
+   */
+  public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+  private static final String EXTENSION = ".pdf";
+  private final Path directory;
+  private final long maxSize;
+  private final Map<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long size = 0;
+
+  /**
+   * Constructor, with the default maximum size. The directory is created if needed.
+   *
+   * @param cacheDirectory Directory of the cache.
+   * @throws IOException if the directory could not be created or read.
+   */
+  public FragmentCache(Path cacheDirectory) throws IOException {
+    this(cacheDirectory, DEFAULT_MAX_BYTES);
+  }
+
+  /**
+   * Constructor. The directory is created if needed, and parts already in it are kept, from the
+   * least to the most recently used.
+   *
+   * @param cacheDirectory Directory of the cache.
+   * @param maxBytes       Maximum total size of the cached parts, in bytes.
+   * @throws IOException              if the directory could not be created or read.
+   * @throws IllegalArgumentException if <code>maxBytes</code> is not positive.
+   */
+  public FragmentCache(Path cacheDirectory, long maxBytes) throws IOException {
+    if (maxBytes < 1) {
+      throw new IllegalArgumentException("Error: cache size must be positive.");
+    }
+    directory = Files.createDirectories(cacheDirectory);
+    maxSize = maxBytes;
+
+    List<Path> files = new ArrayList<>();
+    try (Stream<Path> list = Files.list(directory)) {
+      list.filter(p -> p.getFileName().toString().endsWith(EXTENSION)).forEach(files::add);
+    }
+    files.sort(Comparator.comparing(FragmentCache::getLastUse));
+    for (Path file : files) {
+      String name = file.getFileName().toString();
+      long length = Files.size(file);
+      entries.put(name.substring(0, name.length() - EXTENSION.length()), length);
+      size += length;
+    }
+    evict();
+  }
+
+  /**
+   * Gets a cached part, and marks it as used.
+   *
+   * @param key Key of the part.
+   * @return PDF content of the part, or <code>null</code> if it is not cached.
+   * @throws IOException if the cached part could not be read.
+   */
+  public byte[] get(String key) throws IOException {
+    final Path file = getFile(key);
+    final byte[] content;
+    try {
+      content = Files.readAllBytes(file);
+      Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (NoSuchFileException e) {
+      // Never cached, or removed by another process
+      synchronized (this) {
+        Long length = entries.remove(key);
+        if (length != null) {
+          size -= length;
+        }
+      }
+      return null;
+    }
+
+    // The part may also have been cached by another process
+    synchronized (this) {
+      Long previous = entries.put(key, (long) content.length);
+      size += content.length - ((previous == null) ? 0 : previous);
+    }
+    return content;
+  }
+
+  /**
+   * Caches a part, replacing any previous part with the same key, then removes the least recently
+   * used parts if the cache is too large. A part larger than the whole cache is not cached.
+   *
+   * @param key     Key of the part.
+   * @param content PDF content of the part.
+   * @throws IOException if the part could not be written.
+   */
+  public void put(String key, byte[] content) throws IOException {
+    if (content.length > maxSize) {
+      return;
+    }
+
+    Path temp = Files.createTempFile(directory, key, ".tmp");
+    try {
+      Files.write(temp, content);
+      Files.move(temp, getFile(key), StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+
+    synchronized (this) {
+      Long previous = entries.put(key, (long) content.length);
+      size += content.length - ((previous == null) ? 0 : previous);
+      evict();
+    }
+  }
+
+  /**
+   * Removes the least recently used parts until the cache fits in its maximum size.
+   *
+   * @throws IOException if a file could not be removed.
+   */
+  private synchronized void evict() throws IOException {
+    Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+    while (size > maxSize && eldest.hasNext()) {
+      Map.Entry<String, Long> entry = eldest.next();
+      Files.deleteIfExists(getFile(entry.getKey()));
+      size -= entry.getValue();
+      eldest.remove();
+    }
+  }
+
+  /**
+   * Gets the cached file of a key.
+   *
+   * @param key Key of the part.
+   * @return Cached file.
+   */
+  private Path getFile(String key) {
+    return directory.resolve(key + EXTENSION);
+  }
+
+  /**
+   * Gets the last use time of a cached file.
+   *
+   * @param file Cached file.
+   * @return Last use time.
+   */
+  private static FileTime getLastUse(Path file) {
+    try {
+      return Files.getLastModifiedTime(file);
+    } catch (IOException e) {
+      return FileTime.fromMillis(0);
+    }
+  }
+}
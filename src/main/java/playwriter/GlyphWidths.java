@@ -0,0 +1,110 @@
+package playwriter;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.otf.Glyph;
+import com.itextpdf.kernel.font.PdfFont;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Represents the glyph advances of a font, measured once and then shared by every width
+ * computation. Advances are kept in font units, so one table serves all font sizes, and widths are
+ * the same as those given by {@link PdfFont#getWidth(String, float)}.
+ *
+ * <p>The advances of the Basic Multilingual Plane are all measured on construction, into pages of
+ * primitive arrays (pages without any glyph are left out), so that they can be read from any thread
+ * afterwards. Other code points are measured on first use, into a fallback map.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class GlyphWidths {
+  private static final int PAGE_BITS = 8;
+  private static final int PAGE_SIZE = 1 << PAGE_BITS;
+  private final PdfFont font;
+  private final int[][] pages = new int[1 << (java.lang.Character.SIZE - PAGE_BITS)][];
+  private final Map<Integer, Integer> supplementary = new HashMap<>();
+
+  /**
+   * Constructor. The given font must not be used to write text while this is in use, as measuring
+   * it may modify it.
+   *
+   * @param pdfFont Font to measure.
+   */
+  public GlyphWidths(PdfFont pdfFont) {
+    font = pdfFont;
+    for (int p = 0; p < pages.length; ++p) {
+      int[] page = null;
+      for (int i = 0; i < PAGE_SIZE; ++i) {
+        int advance = getGlyphAdvance((p << PAGE_BITS) | i);
+        if (advance != 0) {
+          if (page == null) {
+            page = new int[PAGE_SIZE];
+          }
+          page[i] = advance;
+        }
+      }
+      pages[p] = page;
+    }
+  }
+
+  /**
+   * Computes the width of a text.
+   *
+   * @param text     Text to measure.
+   * @param fontSize Font size.
+   * @return Width of the text.
+   */
+  public float getWidth(CharSequence text, float fontSize) {
+    return getWidth(text, 0, text.length(), fontSize);
+  }
+
+  /**
+   * Computes the width of a range of a text.
+   *
+   * @param text     Text to measure.
+   * @param from     Start of the range, inclusive.
+   * @param to       End of the range, exclusive.
+   * @param fontSize Font size.
+   * @return Width of the range.
+   */
+  public float getWidth(CharSequence text, int from, int to, float fontSize) {
+    int total = 0;
+    for (int i = from; i < to; ++i) {
+      char c = text.charAt(i);
+      if (java.lang.Character.isHighSurrogate(c) && i + 1 < to
+          && java.lang.Character.isLowSurrogate(text.charAt(i + 1))) {
+        total += getSupplementaryAdvance(java.lang.Character.toCodePoint(c, text.charAt(++i)));
+        continue;
+      }
+
+      int[] page = pages[c >>> PAGE_BITS];
+      if (page != null) {
+        total += page[c & (PAGE_SIZE - 1)];
+      }
+    }
+    return total * fontSize / FontProgram.UNITS_NORMALIZATION;
+  }
+
+  /**
+   * Gets the advance of a code point outside of the Basic Multilingual Plane.
+   *
+   * @param codePoint Code point.
+   * @return Advance of the code point, in font units.
+   */
+  private synchronized int getSupplementaryAdvance(int codePoint) {
+    return supplementary.computeIfAbsent(codePoint, this::getGlyphAdvance);
+  }
+
+  /**
+   * Gets the advance of a code point from the font.
+   *
+   * @param codePoint Code point.
+   * @return Advance of the code point, in font units, or <code>0</code> if the font has no glyph
+   *         for it.
+   */
+  private int getGlyphAdvance(int codePoint) {
+    Glyph glyph = font.getGlyph(codePoint);
+    return (glyph == null) ? 0 : glyph.getWidth();
+  }
+}
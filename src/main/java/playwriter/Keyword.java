@@ -0,0 +1,190 @@
+package playwriter;
+
+import java.util.Arrays;
+
+/**
+ * Represents a keyword of the play language. Keywords are recognised through a perfect hash
+ * table, built once when the class is loaded, so that finding the keyword a line starts with
+ * takes a single hash and comparison.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public enum Keyword {
+  /**
+   * Starts an act, with its number and an optional description.
+   */
+  ACT(true),
+
+  /**
+   * Stands for every character, after <code>ENTER</code>, <code>EXIT</code> and
+   * <code>ONSTAGE</code>.
+   */
+  ALL(false),
+
+  /**
+   * Reserved word, which cannot be used as a character name.
+   */
+  ASGROUP(true),
+
+  /**
+   * Ends the headers, and begins the play.
+   */
+  BEGIN(true),
+
+  /**
+   * Ends the current act.
+   */
+  CURTAIN(true),
+
+  /**
+   * Reserved word, as the play ends with <code>THE END</code>.
+   */
+  END(true),
+
+  /**
+   * Brings characters onstage.
+   */
+  ENTER(true),
+
+  /**
+   * Excludes characters from <code>ALL</code>.
+   */
+  EXCEPT(true),
+
+  /**
+   * Reserved word, which cannot be used as a character name.
+   */
+  EXEUNT(true),
+
+  /**
+   * Takes characters offstage.
+   */
+  EXIT(true),
+
+  /**
+   * Writes a new line.
+   */
+  NEWLINE(true),
+
+  /**
+   * Starts a new page.
+   */
+  NEWPAGE(true),
+
+  /**
+   * Makes a character speak from offstage.
+   */
+  OFFSTAGE(true),
+
+  /**
+   * Sets the characters onstage at the beginning of a scene.
+   */
+  ONSTAGE(true),
+
+  /**
+   * Starts a scene, with its number and an optional description.
+   */
+  SCENE(true);
+
+  private static final int TABLE_BITS = 6;
+  private static final Keyword[] TABLE = new Keyword[1 << TABLE_BITS];
+  private static final int MAX_LENGTH = 8;
+  private static final int MULTIPLIER = buildTable();
+  private final boolean reserved;
+
+  /**
+   * Constructor.
+   *
+   * @param isReserved <code>true</code> if the keyword cannot be used as a character name,
+   *                   <code>false</code> otherwise.
+   */
+  Keyword(boolean isReserved) {
+    reserved = isReserved;
+  }
+
+  /**
+   * Checks whether the keyword cannot be used as a character name. <code>ALL</code> is only a
+   * keyword after <code>ENTER</code>, <code>EXIT</code> and <code>ONSTAGE</code>.
+   *
+   * @return <code>true</code> if it cannot, <code>false</code> otherwise.
+   */
+  public boolean isReserved() {
+    return reserved;
+  }
+
+  /**
+   * Finds the keyword written in a range of characters. Case is ignored.
+   *
+   * @param chars Characters.
+   * @param from  Start of the range, inclusive.
+   * @param to    End of the range, exclusive.
+   * @return Keyword, or <code>null</code> if the range is not a keyword.
+   */
+  public static Keyword find(char[] chars, int from, int to) {
+    if (to - from > MAX_LENGTH || to == from) {
+      return null;
+    }
+
+    int hash = 0;
+    for (int i = from; i < to; ++i) {
+      hash = 31 * hash + java.lang.Character.toUpperCase(chars[i]);
+    }
+    Keyword keyword = TABLE[slot(hash, MULTIPLIER)];
+    if (keyword == null || keyword.name().length() != to - from) {
+      return null;
+    }
+
+    String name = keyword.name();
+    for (int i = from; i < to; ++i) {
+      if (java.lang.Character.toUpperCase(chars[i]) != name.charAt(i - from)) {
+        return null;
+      }
+    }
+    return keyword;
+  }
+
+  /**
+   * Finds the keyword written in a {@link String}. Case is ignored.
+   *
+   * @param text Text.
+   * @return Keyword, or <code>null</code> if the text is not a keyword.
+   */
+  public static Keyword find(String text) {
+    return find(text.toCharArray(), 0, text.length());
+  }
+
+  /**
+   * Gets the slot of a hash in the table.
+   *
+   * @param hash       Hash of the upper case keyword.
+   * @param multiplier Multiplier spreading the hashes.
+   * @return Slot in the table.
+   */
+  private static int slot(int hash, int multiplier) {
+    return (hash * multiplier) >>> (Integer.SIZE - TABLE_BITS);
+  }
+
+  /**
+   * Builds the table, looking for a multiplier giving each keyword its own slot.
+   *
+   * @return Multiplier found.
+   */
+  private static int buildTable() {
+    for (int multiplier = 0x9E3779B1; ; multiplier += 2) {
+      Arrays.fill(TABLE, null);
+      boolean perfect = true;
+      for (Keyword keyword : values()) {
+        int slot = slot(keyword.name().hashCode(), multiplier);
+        if (TABLE[slot] != null) {
+          perfect = false;
+          break;
+        }
+        TABLE[slot] = keyword;
+      }
+      if (perfect) {
+        return multiplier;
+      }
+    }
+  }
+}
@@ -0,0 +1,312 @@
+package playwriter;
+
+/**
+ * Represents a line lexer. Each line is normalised once into a reusable buffer (surrounding
+ * whitespaces stripped, and inner runs of whitespaces collapsed to a single space), and is then
+ * consumed from left to right. Keywords and character names are matched in place, through the
+ * current token, and only the texts the play keeps are turned into {@link String}s.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class LineLexer {
+  private char[] buffer = new char[256];
+  private int position = 0;
+  private int end = 0;
+  private int indentation = 0;
+  private int tokenStart = 0;
+  private int tokenEnd = 0;
+
+  /**
+   * Constructor.
+   */
+  public LineLexer() {
+  }
+
+  /**
+   * Updates the current line.
+   *
+   * @param line New line.
+   */
+  public void updateLine(CharSequence line) {
+    int from = 0;
+    int to = line.length();
+    while (from < to && java.lang.Character.isWhitespace(line.charAt(from))) {
+      ++from;
+    }
+    while (to > from && java.lang.Character.isWhitespace(line.charAt(to - 1))) {
+      --to;
+    }
+
+    if (buffer.length < to - from) {
+      buffer = new char[Math.max(to - from, 2 * buffer.length)];
+    }
+    int length = 0;
+    boolean inWhitespaces = false;
+    for (int i = from; i < to; ++i) {
+      char c = line.charAt(i);
+      if (isAsciiWhitespace(c)) {
+        if (!inWhitespaces) {
+          buffer[length++] = Utils.TOKEN_SEPARATOR;
+          inWhitespaces = true;
+        }
+      } else {
+        buffer[length++] = c;
+        inWhitespaces = false;
+      }
+    }
+
+    position = 0;
+    end = length;
+    indentation = from;
+  }
+
+  /**
+   * Clears the current line.
+   */
+  public void clear() {
+    position = 0;
+    end = 0;
+    indentation = 0;
+  }
+
+  /**
+   * Gets the number of whitespaces stripped at the start of the current line.
+   *
+   * @return Number of leading whitespaces.
+   */
+  public int getIndentation() {
+    return indentation;
+  }
+
+  /**
+   * Checks whether the line has been fully consumed.
+   *
+   * @return <code>true</code> if the line has been fully consumed, <code>false</code> otherwise.
+   */
+  public boolean consumed() {
+    return position == end;
+  }
+
+  /**
+   * Gets the rest of the current line.
+   *
+   * @return Rest of the current line.
+   */
+  public String getLine() {
+    return new String(buffer, position, end - position);
+  }
+
+  /**
+   * Gets the first character of the rest of the line. The line must not be consumed.
+   *
+   * @return First character.
+   */
+  public char firstChar() {
+    return buffer[position];
+  }
+
+  /**
+   * Consumes the first character of the rest of the line, and the whitespaces after it.
+   */
+  public void skipFirstChar() {
+    ++position;
+    skipWhitespaces();
+  }
+
+  /**
+   * Finds the keyword the first argument, separated by {@link Utils#TOKEN_SEPARATOR}, is. Case is
+   * ignored. <b>This does NOT modify the current line.</b>
+   *
+   * @return Keyword, or <code>null</code> if the first argument is not a keyword.
+   */
+  public Keyword firstKeyword() {
+    int argumentEnd = indexOf(Utils.TOKEN_SEPARATOR);
+    return Keyword.find(buffer, position, (argumentEnd == -1) ? end : argumentEnd);
+  }
+
+  /**
+   * Checks whether the rest of the line is equal to a text, ignoring case.
+   *
+   * @param text Text to compare to.
+   * @return <code>true</code> if it is, <code>false</code> otherwise.
+   */
+  public boolean restEqualsIgnoreCase(String text) {
+    if (end - position != text.length()) {
+      return false;
+    }
+
+    for (int i = 0; i < text.length(); ++i) {
+      char c1 = buffer[position + i];
+      char c2 = text.charAt(i);
+      if (c1 != c2 && java.lang.Character.toUpperCase(c1) != java.lang.Character.toUpperCase(c2)
+          && java.lang.Character.toLowerCase(c1) != java.lang.Character.toLowerCase(c2)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Consumes the first argument, separated by {@link Utils#TOKEN_SEPARATOR}.
+   */
+  public void skipArgument() {
+    int index = indexOf(Utils.TOKEN_SEPARATOR);
+    position = (index == -1) ? end : index + 1;
+    skipWhitespaces();
+  }
+
+  /**
+   * Consumes the next argument, separated by <code>separator</code>, and makes it the current
+   * token. The token is the whole rest of the line if no <code>separator</code> is found.
+   *
+   * @param separator Separator ending the argument.
+   */
+  public void nextArgument(char separator) {
+    int index = indexOf(separator);
+    if (index == -1) {
+      setToken(position, end);
+      position = end;
+      return;
+    }
+
+    setToken(position, index);
+    position = index + 1;
+    skipWhitespaces();
+  }
+
+  /**
+   * Finds the first {@link Utils#ARG_SEPARATOR} or {@link Utils#INDENTED_SPEECH_START} in the rest
+   * of the line, whichever comes first.
+   *
+   * @return Index of the separator, or <code>-1</code> if there is none.
+   */
+  public int findSpeechSeparator() {
+    for (int i = position; i < end; ++i) {
+      char c = buffer[i];
+      if (c == Utils.ARG_SEPARATOR || c == Utils.INDENTED_SPEECH_START) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Gets a character of the current line.
+   *
+   * @param index Index of the character.
+   * @return Character.
+   */
+  public char charAt(int index) {
+    return buffer[index];
+  }
+
+  /**
+   * Makes the text between the rest of the line and a separator the current token.
+   *
+   * @param separatorIndex Index of the separator.
+   */
+  public void tokenBefore(int separatorIndex) {
+    setToken(position, separatorIndex);
+  }
+
+  /**
+   * Checks whether the current token is empty.
+   *
+   * @return <code>true</code> if it is, <code>false</code> otherwise.
+   */
+  public boolean tokenIsEmpty() {
+    return tokenStart == tokenEnd;
+  }
+
+  /**
+   * Finds the keyword the current token is. Case is ignored.
+   *
+   * @return Keyword, or <code>null</code> if the token is not a keyword.
+   */
+  public Keyword tokenKeyword() {
+    return Keyword.find(buffer, tokenStart, tokenEnd);
+  }
+
+  /**
+   * Finds the id of the current token in a symbol table. Case is ignored.
+   *
+   * @param symbols Symbol table.
+   * @return Id of the token, or <code>-1</code> if not found.
+   */
+  public int findToken(SymbolTable symbols) {
+    return symbols.find(buffer, tokenStart, tokenEnd);
+  }
+
+  /**
+   * Gets the current token in upper case.
+   *
+   * @return Current token in upper case.
+   */
+  public String getUpperCaseToken() {
+    return new String(buffer, tokenStart, tokenEnd - tokenStart).toUpperCase();
+  }
+
+  /**
+   * Gets the text after a separator, without leading whitespaces.
+   *
+   * @param separatorIndex Index of the separator.
+   * @return Text after the separator.
+   */
+  public String getTextAfter(int separatorIndex) {
+    int from = separatorIndex + 1;
+    while (from < end && java.lang.Character.isWhitespace(buffer[from])) {
+      ++from;
+    }
+    return new String(buffer, from, end - from);
+  }
+
+  /**
+   * Sets the current token to a range of the line, without trailing whitespaces.
+   *
+   * @param from Start of the range, inclusive.
+   * @param to   End of the range, exclusive.
+   */
+  private void setToken(int from, int to) {
+    while (to > from && java.lang.Character.isWhitespace(buffer[to - 1])) {
+      --to;
+    }
+    tokenStart = from;
+    tokenEnd = to;
+  }
+
+  /**
+   * Finds a character in the rest of the line.
+   *
+   * @param c Character to find.
+   * @return Index of the character, or <code>-1</code> if not found.
+   */
+  private int indexOf(char c) {
+    for (int i = position; i < end; ++i) {
+      if (buffer[i] == c) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Consumes the whitespaces at the start of the rest of the line.
+   */
+  private void skipWhitespaces() {
+    while (position < end && java.lang.Character.isWhitespace(buffer[position])) {
+      ++position;
+    }
+  }
+
+  /**
+   * Checks whether a character is collapsed with the whitespaces around it, which are the ASCII
+   * whitespaces.
+   *
+   * @param c Character to check.
+   * @return <code>true</code> if it is, <code>false</code> otherwise.
+   */
+  private static boolean isAsciiWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+  }
+}
@@ -0,0 +1,23 @@
+package playwriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Represents a source of play lines, read one at a time.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public interface LineSource extends Closeable {
+
+  /**
+   * Reads the next line. The returned sequence may be reused by the source, so it is only valid
+   * until the next call.
+   *
+   * @return Next line, without its line terminator, or <code>null</code> if the end of the source
+   *         is reached.
+   * @throws IOException if reading failed.
+   */
+  CharSequence nextLine() throws IOException;
+}
@@ -0,0 +1,70 @@
+package playwriter;
+
+/**
+ * Represents a renderer which outputs nothing. Using it with {@link Play} only checks the play,
+ * without creating any PDF objects.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class NoOpRenderer implements PlayRenderer {
+
+  /**
+   * Constructor.
+   */
+  public NoOpRenderer() {
+  }
+
+  @Override
+  public void addCharacter(String name, String description) {
+  }
+
+  @Override
+  public void begin(String title, String author, PlayOptions options) {
+  }
+
+  @Override
+  public void newLine() {
+  }
+
+  @Override
+  public void newPage() {
+  }
+
+  @Override
+  public void act(int number, String description) {
+  }
+
+  @Override
+  public void scene(int number, String description) {
+  }
+
+  @Override
+  public void speech(int characterId, String text, boolean offStage, boolean writeCharName,
+                     boolean hasLeadingWhitespaces) {
+  }
+
+  @Override
+  public void stageDirections(String text) {
+  }
+
+  @Override
+  public void resetWidth() {
+  }
+
+  @Override
+  public void curtain() {
+  }
+
+  @Override
+  public void end() {
+  }
+
+  @Override
+  public void close() {
+  }
+
+  @Override
+  public void abort() {
+  }
+}
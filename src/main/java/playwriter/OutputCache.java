@@ -0,0 +1,250 @@
+package playwriter;
+
+import com.itextpdf.kernel.actions.data.ITextCoreProductData;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Represents an on-disk cache of compiled PDF files, addressed by a hash of everything the output
+ * depends on: the bytes of the play file, the compilation settings, and the versions of PlayWriter
+ * and iText. As PDF files are written deterministically, a cached file is the same as the one a
+ * compilation would write.
+ *
+ * <p>The total size of the cache is bounded: once it is exceeded, the least recently used files are
+ * removed. Use times are kept as the modification times of the files, so they outlast the process.
+ *
+ * <p>This class is thread-safe. Entries are written to a temporary file first, then moved into
+ * place atomically, so the cache can also be shared with other processes. Compilations of the same
+ * key should be done under {@link OutputCache#acquireLock(String)}, so that only one of them
+ * compiles while the others wait and then copy its output. Locks are only kept while they are
+ * held or waited for, so their number does not grow with the number of plays compiled.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class OutputCache {
+  private static final String DIGEST_ALGORITHM = "SHA-256";
+  private static final String EXTENSION = ".pdf";
+  private final Path directory;
+  private final long maxSize;
+  private final Map<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<String, KeyLock> locks = new ConcurrentHashMap<>();
+  private long size = 0;
+
+  /**
+   * Constructor. The directory is created if needed, and files already in it are kept, from the
+   * least to the most recently used.
+   *
+   * @param cacheDirectory Directory of the cache.
+   * @param maxBytes       Maximum total size of the cached files, in bytes.
+   * @throws IOException              if the directory could not be created or read.
+   * @throws IllegalArgumentException if <code>maxBytes</code> is not positive.
+   */
+  public OutputCache(Path cacheDirectory, long maxBytes) throws IOException {
+    if (maxBytes < 1) {
+      throw new IllegalArgumentException("Error: cache size must be positive.");
+    }
+    directory = Files.createDirectories(cacheDirectory);
+    maxSize = maxBytes;
+
+    List<Path> files = new ArrayList<>();
+    try (Stream<Path> list = Files.list(directory)) {
+      list.filter(p -> p.getFileName().toString().endsWith(EXTENSION)).forEach(files::add);
+    }
+    files.sort(Comparator.comparing(OutputCache::getLastUse));
+    for (Path file : files) {
+      String name = file.getFileName().toString();
+      long length = Files.size(file);
+      entries.put(name.substring(0, name.length() - EXTENSION.length()), length);
+      size += length;
+    }
+    evict();
+  }
+
+  /**
+   * Computes the key of a compilation.
+   *
+   * @param playFile Play file.
+   * @param settings Compilation settings which change the output, in any stable text form.
+   * @return Hexadecimal hash of the play file and the settings.
+   * @throws IOException if the play file could not be read.
+   */
+  public static String computeKey(Path playFile, String settings) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+
+    final String header = Utils.getFullAppName() + "\n"
+        + ITextCoreProductData.getInstance().getVersion() + "\n" + settings + "\n";
+    digest.update(header.getBytes(StandardCharsets.UTF_8));
+    try (InputStream input = new DigestInputStream(Files.newInputStream(playFile), digest)) {
+      input.transferTo(OutputStream.nullOutputStream());
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  /**
+   * Gets the lock of a key, to synchronize on. Checking the cache, compiling and storing the output
+   * under it makes concurrent compilations of the same play compile it only once. Each call must
+   * be followed by a call to {@link OutputCache#releaseLock(String)}, once the lock is no longer
+   * held.
+   *
+   * @param key Key of the compilation.
+   * @return Lock of the key.
+   */
+  public Object acquireLock(String key) {
+    return locks.compute(key, (k, lock) -> {
+      final KeyLock keyLock = (lock == null) ? new KeyLock() : lock;
+      ++keyLock.users;
+      return keyLock;
+    });
+  }
+
+  /**
+   * Releases the lock of a key, which is dropped once no other compilation uses it.
+   *
+   * @param key Key of the compilation.
+   */
+  public void releaseLock(String key) {
+    locks.computeIfPresent(key, (k, lock) -> (--lock.users == 0) ? null : lock);
+  }
+
+  /**
+   * Copies a cached PDF file to an output file, and marks it as used. The output file is only
+   * replaced once copied.
+   *
+   * @param key    Key of the compilation.
+   * @param output Output file, replaced if it exists.
+   * @return <code>true</code> if the key was cached, <code>false</code> otherwise.
+   * @throws IOException if the copy failed.
+   */
+  public boolean fetch(String key, Path output) throws IOException {
+    final Path file = getFile(key);
+    try (InputStream cached = Files.newInputStream(file)) {
+      AtomicOutputFile outputFile = new AtomicOutputFile(output);
+      try {
+        cached.transferTo(outputFile.getStream());
+      } catch (IOException e) {
+        outputFile.discard();
+        throw e;
+      }
+      outputFile.commit();
+      Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (NoSuchFileException e) {
+      // Never cached, or removed by another process
+      synchronized (this) {
+        Long length = entries.remove(key);
+        if (length != null) {
+          size -= length;
+        }
+      }
+      return false;
+    }
+
+    // The file may also have been cached by another process
+    final long length = Files.size(output);
+    synchronized (this) {
+      Long previous = entries.put(key, length);
+      size += length - ((previous == null) ? 0 : previous);
+    }
+    return true;
+  }
+
+  /**
+   * Caches a compiled PDF file, then removes the least recently used files if the cache is too
+   * large. A file larger than the whole cache is not cached.
+   *
+   * @param key    Key of the compilation.
+   * @param output Compiled PDF file.
+   * @throws IOException if the file could not be cached.
+   */
+  public void store(String key, Path output) throws IOException {
+    final long length = Files.size(output);
+    if (length > maxSize) {
+      return;
+    }
+
+    Path temp = Files.createTempFile(directory, key, ".tmp");
+    try {
+      Files.copy(output, temp, StandardCopyOption.REPLACE_EXISTING);
+      Files.move(temp, getFile(key), StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+
+    synchronized (this) {
+      Long previous = entries.put(key, length);
+      size += length - ((previous == null) ? 0 : previous);
+      evict();
+    }
+  }
+
+  /**
+   * Removes the least recently used files until the cache fits in its maximum size.
+   *
+   * @throws IOException if a file could not be removed.
+   */
+  private synchronized void evict() throws IOException {
+    Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+    while (size > maxSize && eldest.hasNext()) {
+      Map.Entry<String, Long> entry = eldest.next();
+      Files.deleteIfExists(getFile(entry.getKey()));
+      size -= entry.getValue();
+      eldest.remove();
+    }
+  }
+
+  /**
+   * Gets the cached file of a key.
+   *
+   * @param key Key of the compilation.
+   * @return Cached file.
+   */
+  private Path getFile(String key) {
+    return directory.resolve(key + EXTENSION);
+  }
+
+  /**
+   * Gets the last use time of a cached file.
+   *
+   * @param file Cached file.
+   * @return Last use time.
+   */
+  private static FileTime getLastUse(Path file) {
+    try {
+      return Files.getLastModifiedTime(file);
+    } catch (IOException e) {
+      return FileTime.fromMillis(0);
+    }
+  }
+
+  /**
+   * Represents the lock of a key, with the number of compilations holding or waiting for it.
+   */
+  private static final class KeyLock {
+    private int users = 0;
+  }
+}
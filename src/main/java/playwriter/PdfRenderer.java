@@ -0,0 +1,481 @@
+package playwriter;
+
+import static com.itextpdf.io.font.constants.StandardFonts.TIMES_BOLD;
+import static com.itextpdf.io.font.constants.StandardFonts.TIMES_ITALIC;
+import static com.itextpdf.io.font.constants.StandardFonts.TIMES_ROMAN;
+import static com.itextpdf.layout.properties.TextAlignment.CENTER;
+import static com.itextpdf.layout.properties.TextAlignment.JUSTIFIED;
+import static com.itextpdf.layout.properties.VerticalAlignment.MIDDLE;
+
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfDocumentInfo;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfString;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.Style;
+import com.itextpdf.layout.element.AreaBreak;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Text;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Represents a renderer writing a play to a PDF file.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class PdfRenderer implements PlayRenderer {
+  private static final String OFFSTAGE_TEXT = " (offstage)";
+  private static final float SPEECH_MARGIN = 2;
+  private static final int DOCUMENT_ID_LENGTH = 16;
+  private final OutputStream output;
+  private final AtomicOutputFile file;
+  private final SharedFont normal = SharedFont.get(TIMES_ROMAN);
+  private final SharedFont bold = SharedFont.get(TIMES_BOLD);
+  private final SharedFont italic = SharedFont.get(TIMES_ITALIC);
+  private final PdfFont normalFont = normal.createHandle();
+  private final PdfFont boldFont = bold.createHandle();
+  private final PdfFont italicFont = italic.createHandle();
+  private final GlyphWidths normalWidths = normal.getWidths();
+  private final GlyphWidths boldWidths = bold.getWidths();
+  private final GlyphWidths italicWidths = italic.getWidths();
+  private final Style normalFontStyle = new Style().setFont(normalFont);
+  private final Style boldFontStyle = new Style().setFont(boldFont);
+  private final Style italicFontStyle = new Style().setFont(italicFont);
+  private Rectangle pageSize = null;
+  private final List<String> characterNames = new ArrayList<>();
+  private PlayOptions options = new PlayOptions();
+  private boolean lastIsStageDir = false;
+  private Document document = null;
+  private PdfString revisionId = null;
+  private final boolean hasTitlePage;
+  private boolean skipActBreak = false;
+  private float padding = 0;
+  private float[] nameWidths = new float[0];
+  private float offStageWidth = 0;
+  private float lastWidth = 0;
+
+  /**
+   * Constructor. The file is only replaced once the play is closed, and is left as it was if the
+   * play fails. As for every constructor, the document is only opened once the play begins, as its
+   * id is derived from the headers of the play.
+   *
+   * @param outputFileName Output file name.
+   * @throws IOException if file loading failed.
+   */
+  public PdfRenderer(String outputFileName) throws IOException {
+    this(new AtomicOutputFile(Path.of(outputFileName)));
+  }
+
+  /**
+   * Constructor writing a part of a play to a stream. Without a title page, the part must start
+   * with an act, which is then laid out from the top of the first page, as if it followed a page
+   * break. Aborting only closes the stream.
+   *
+   * @param output    Output stream.
+   * @param titlePage <code>true</code> to begin the play with its title page, <code>false</code>
+   *                  to only use its headers to lay out the speeches.
+   * @throws IOException if the fonts could not be loaded.
+   */
+  public PdfRenderer(OutputStream output, boolean titlePage) throws IOException {
+    this(output, null, titlePage);
+  }
+
+  /**
+   * Constructor writing a whole play to a file.
+   *
+   * @param outputFile Output file.
+   * @throws IOException if the fonts could not be loaded.
+   */
+  private PdfRenderer(AtomicOutputFile outputFile) throws IOException {
+    this(outputFile.getStream(), outputFile, true);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param output     Output stream.
+   * @param outputFile Output file written by the stream, or <code>null</code> if not writing to a
+   *                   file.
+   * @param titlePage  <code>true</code> to begin the play with its title page,
+   *                   <code>false</code> otherwise.
+   * @throws IOException if the fonts could not be loaded.
+   */
+  private PdfRenderer(OutputStream outputStream, AtomicOutputFile outputFile, boolean titlePage)
+      throws IOException {
+    output = outputStream;
+    file = outputFile;
+    hasTitlePage = titlePage;
+  }
+
+  /**
+   * Writes a PDF file with a fail message, replacing the file once written.
+   *
+   * @param outputFileName Output file name.
+   */
+  public static void writeFailMessage(String outputFileName) {
+    AtomicOutputFile outputFile = null;
+    try {
+      outputFile = new AtomicOutputFile(Path.of(outputFileName));
+      PdfDocument pdf = openDocument(outputFile.getStream(), false, getDocumentId(), null);
+      pdf.addNewPage();
+      Document failDocument = new Document(pdf);
+      final String error = "\n\n\n\n\n\n\n\nThe play generation failed due to a compilation error.";
+      final PdfFont font = SharedFont.get(TIMES_BOLD).createHandle();
+      Paragraph p = new Paragraph(new Text(error).addStyle(new Style().setFont(font)))
+          .setFontSize(28).setTextAlignment(CENTER);
+      failDocument.add(p);
+      failDocument.close();
+      outputFile.commit();
+    } catch (IOException | RuntimeException e) {
+      // Ignore case where document writing failed, leaving the file as it was
+      if (outputFile != null) {
+        outputFile.discard();
+      }
+    }
+  }
+
+  /**
+   * Opens a PDF document whose bytes only depend on what is written to it, so that compiling the
+   * same play always gives the same file: its id is given, and it has no creation or modification
+   * date.
+   *
+   * @param output      Output stream.
+   * @param smartMode   <code>true</code> to write identical objects only once, <code>false</code>
+   *                    otherwise.
+   * @param permanentId Permanent half of the id of the document.
+   * @param revisionId  Half of the id which changes with every revision of the document, or
+   *                    <code>null</code> to use the permanent one.
+   * @return PDF document, with its creator set.
+   */
+  static PdfDocument openDocument(OutputStream output, boolean smartMode, PdfString permanentId,
+                                  PdfString revisionId) {
+    WriterProperties properties = new WriterProperties().setInitialDocumentId(permanentId)
+        .setModifiedDocumentId((revisionId == null) ? permanentId : revisionId);
+    if (smartMode) {
+      properties.useSmartMode();
+    }
+
+    PdfDocument pdf = new PdfDocument(new PdfWriter(output, properties));
+    PdfDocumentInfo info = pdf.getDocumentInfo();
+    info.setMoreInfo(PdfName.CreationDate.getValue(), null);
+    info.setMoreInfo(PdfName.ModDate.getValue(), null);
+    info.setCreator(Utils.getPdfContentCreator());
+    return pdf;
+  }
+
+  /**
+   * Sets the revision of the play, from which the half of the document id which changes with
+   * every revision is derived. Without it, both halves are the permanent id. It must be set before
+   * the play begins.
+   *
+   * @param revision Revision of the play, such as a hash of its source.
+   */
+  void setRevision(String revision) {
+    revisionId = getDocumentId(revision);
+  }
+
+  @Override
+  public void addCharacter(String name, String description) {
+    characterNames.add(name);
+  }
+
+  @Override
+  public void begin(String title, String author, PlayOptions playOptions) {
+    options = playOptions;
+    PdfDocument pdf = openDocument(output, false, getDocumentId(title, author, characterNames),
+        revisionId);
+    pageSize = pdf.addNewPage().getPageSize();
+    document = new Document(pdf);
+    document.setRenderer(new StreamingDocumentRenderer(document));
+    getPdfDoc().getDocumentInfo().setTitle(title);
+    getPdfDoc().getDocumentInfo().setAuthor(author);
+
+    if (hasTitlePage) {
+      final float height = getPageHeight();
+      Cell cell = new Cell();
+      cell.add(new Paragraph(new Text(title).addStyle(boldFontStyle))
+          .setFontSize(options.getTitleSize()).setTextAlignment(CENTER)).setMinHeight(height)
+          .setVerticalAlignment(MIDDLE);
+      cell.add(new Paragraph(new Text(author).addStyle(normalFontStyle))
+          .setFontSize(options.getAuthorSize()).setTextAlignment(CENTER)).setMinHeight(height)
+          .setVerticalAlignment(MIDDLE);
+      document.add(cell);
+    } else {
+      skipActBreak = true;
+    }
+
+    final int textSize = options.getTextSize();
+    offStageWidth = italicWidths.getWidth(OFFSTAGE_TEXT, textSize);
+    nameWidths = new float[characterNames.size()];
+    for (int id = 0; id < nameWidths.length; ++id) {
+      nameWidths[id] = boldWidths.getWidth(characterNames.get(id), textSize);
+      float size = (float) Math.ceil(nameWidths[id] + offStageWidth);
+      if (size > padding) {
+        padding = size;
+      }
+    }
+  }
+
+  @Override
+  public void newLine() throws IOException {
+    try (PdfWriter writer = getPdfDoc().getWriter()) {
+      writer.writeNewLine();
+    }
+    lastIsStageDir = false;
+  }
+
+  @Override
+  public void newPage() {
+    document.add(new AreaBreak());
+    lastIsStageDir = false;
+  }
+
+  @Override
+  public void act(int number, String description) {
+    if (number > 1 && !skipActBreak) {
+      newPage();
+    }
+    skipActBreak = false;
+
+    Paragraph p = new Paragraph().setFontSize(options.getActSize()).setTextAlignment(CENTER);
+    if (description == null) {
+      p.add(new Text("ACT " + number).addStyle(boldFontStyle));
+    } else {
+      p.add(
+          new Text((number == 1 ? "" : "\n") + "ACT " + number + ": " + description).addStyle(
+              boldFontStyle
+          ));
+    }
+
+    document.add(p);
+    lastWidth = 0;
+    lastIsStageDir = false;
+  }
+
+  @Override
+  public void scene(int number, String description) {
+    Paragraph p = new Paragraph().setFontSize(options.getSceneSize()).setTextAlignment(CENTER);
+    if (description == null) {
+      p.add(new Text("SCENE " + number).addStyle(boldFontStyle));
+    } else {
+      p.add(new Text(
+          (number == 1 ? "" : "\n") + "SCENE " + number + ": " + description).addStyle(
+          boldFontStyle
+      ));
+    }
+
+    document.add(p);
+    lastWidth = 0;
+    lastIsStageDir = false;
+  }
+
+  @Override
+  public void speech(int characterId, String text, boolean offStage, boolean writeCharName,
+                     boolean hasLeadingWhitespaces) {
+    final int textSize = options.getTextSize();
+    final int speechPadding = options.getSpeechPadding();
+    final float leftPadding = getPageWidth() - padding;
+
+    float newWidth = (normalWidths.getWidth(text, textSize) + speechPadding) % leftPadding;
+    Paragraph p = new Paragraph(new Text(text).addStyle(normalFontStyle)).setFontSize(textSize)
+        .setMargins(SPEECH_MARGIN, SPEECH_MARGIN, SPEECH_MARGIN, padding + speechPadding)
+        .setTextAlignment(JUSTIFIED);
+    if (hasLeadingWhitespaces && fitsAfterLastSpeech(text, leftPadding - speechPadding)) {
+      newWidth += lastWidth;
+      newWidth %= leftPadding;
+      p.setFirstLineIndent(lastWidth);
+    }
+
+    if (writeCharName) {
+      final float nameWidth = nameWidths[characterId] + (offStage ? offStageWidth : 0);
+      p.setNextRenderer(new SpeechRenderer(p, padding - nameWidth, boldFont,
+          characterNames.get(characterId), italicFont, offStage ? OFFSTAGE_TEXT : null));
+    } else {
+      p.setNextRenderer(new SpeechRenderer(p, 0, boldFont, null, italicFont, null));
+    }
+    document.add(p);
+    lastWidth = newWidth;
+    lastIsStageDir = false;
+  }
+
+  @Override
+  public void stageDirections(String text) {
+    final int textSize = options.getTextSize();
+    Paragraph p = new Paragraph().setFontSize(textSize);
+    if (!lastIsStageDir) {
+      p.setPaddingTop(textSize * (float) 0.75);
+    }
+    p.setPaddingBottom(textSize * (float) 0.75);
+    p.add(new Text("\0\t\t" + text).addStyle(italicFontStyle));
+    document.add(p);
+    lastWidth = 0;
+    lastIsStageDir = true;
+  }
+
+  @Override
+  public void resetWidth() {
+    lastWidth = 0;
+  }
+
+  @Override
+  public void curtain() {
+    Paragraph p = new Paragraph().setFontSize(options.getTextSize());
+    p.add(new Text("\n\0\t\tCURTAIN").addStyle(normalFontStyle));
+    document.add(p);
+    lastWidth = 0;
+    lastIsStageDir = false;
+  }
+
+  @Override
+  public void end() {
+    lastIsStageDir = false;
+    Paragraph p = new Paragraph().setFontSize(options.getTextSize()).setTextAlignment(CENTER);
+    p.add(new Text("\n\0\nTHE END").addStyle(boldFontStyle));
+    document.add(p);
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      closeDocument();
+    } catch (RuntimeException e) {
+      if (file != null) {
+        file.discard();
+      }
+      throw e;
+    }
+    if (file != null) {
+      file.commit();
+    }
+  }
+
+  @Override
+  public void abort() {
+    try {
+      closeDocument();
+    } catch (IOException | RuntimeException ignored) {
+      // The document is dropped anyway
+    } finally {
+      if (file != null) {
+        file.discard();
+      }
+    }
+  }
+
+  /**
+   * Closes the document, or only the output if the play has not begun. The fonts are written
+   * first, in a fixed order, as the document would otherwise write them in an order which changes
+   * from one document to the next.
+   *
+   * @throws IOException if the output could not be closed.
+   */
+  private void closeDocument() throws IOException {
+    if (document == null) {
+      output.close();
+      return;
+    }
+
+    for (PdfFont font : new PdfFont[] {normalFont, boldFont, italicFont}) {
+      // Fonts only get a reference once used, and unused ones must not be written
+      if (font.getPdfObject().getIndirectReference() != null) {
+        font.flush();
+      }
+    }
+    document.close();
+  }
+
+  /**
+   * Gets the id of the documents which are not a play, derived from the name and version of
+   * PlayWriter.
+   *
+   * @return Document id.
+   */
+  private static PdfString getDocumentId() {
+    return getDocumentId(Utils.getFullAppName());
+  }
+
+  /**
+   * Gets the permanent id of the document of a play, derived from its headers. It therefore stays
+   * the same across the revisions of the play, whatever the way it is laid out, as long as its
+   * title, author and character names are unchanged. Plays with the same headers share it.
+   *
+   * @param title      Title of the play.
+   * @param author     Author of the play.
+   * @param characters Names of the characters of the play.
+   * @return Document id.
+   */
+  static PdfString getDocumentId(String title, String author, List<String> characters) {
+    StringBuilder headers = new StringBuilder().append(title).append('\0').append(author);
+    for (String name : characters) {
+      headers.append('\0').append(name);
+    }
+    return getDocumentId(headers.toString());
+  }
+
+  /**
+   * Gets a document id derived from a text.
+   *
+   * @param text Text to derive the id from.
+   * @return Document id.
+   */
+  static PdfString getDocumentId(String text) {
+    UUID id = UUID.nameUUIDFromBytes(text.getBytes(StandardCharsets.UTF_8));
+    byte[] bytes = ByteBuffer.allocate(DOCUMENT_ID_LENGTH).putLong(id.getMostSignificantBits())
+        .putLong(id.getLeastSignificantBits()).array();
+    return new PdfString(bytes).setHexWriting(true);
+  }
+
+  /**
+   * Checks whether the first word of a speech fits on the line the previous speech ended on. If it
+   * does not, the speech starts on its own line instead, as the first line could not be laid out.
+   *
+   * @param text      Text of the speech.
+   * @param textWidth Width of the text column.
+   * @return <code>true</code> if it fits, <code>false</code> otherwise.
+   */
+  private boolean fitsAfterLastSpeech(String text, float textWidth) {
+    final int wordEnd = text.indexOf(Utils.TOKEN_SEPARATOR);
+    return lastWidth + normalWidths.getWidth(text, 0, (wordEnd == -1) ? text.length() : wordEnd,
+        options.getTextSize()) <= textWidth - SPEECH_MARGIN;
+  }
+
+  /**
+   * Gets the PDF document.
+   *
+   * @return PDF document.
+   */
+  private PdfDocument getPdfDoc() {
+    return document.getPdfDocument();
+  }
+
+  /**
+   * Computes the page width.
+   *
+   * @return Page width.
+   */
+  private float getPageWidth() {
+    return pageSize.getWidth() - document.getLeftMargin() - document.getRightMargin();
+  }
+
+  /**
+   * Computes the page height.
+   *
+   * @return Page height.
+   */
+  private float getPageHeight() {
+    return pageSize.getHeight() - document.getTopMargin() - document.getBottomMargin();
+  }
+}
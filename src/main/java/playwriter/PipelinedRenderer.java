@@ -0,0 +1,215 @@
+package playwriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Represents a renderer handing the play over to another renderer, running on its own thread. The
+ * thread calling this renderer (the one reading and checking the play) only records the events and
+ * queues them in batches, while the target renderer lays them out, so that reading the source file
+ * overlaps with the layout.
+ *
+ * <p>The characters and the beginning of the play are passed on directly, on the calling thread,
+ * and the rendering thread is only started afterwards. The target renderer then receives exactly
+ * the same calls, in the same order, as if it was used on its own. The queue is bounded, so the
+ * reading side waits when the layout falls behind, rather than holding the whole play in memory.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class PipelinedRenderer implements PlayRenderer {
+  private static final int BATCH_SIZE = 256;
+  private static final int QUEUE_CAPACITY = 4;
+  // Marks the end of the events, and is compared by identity as no empty batch is ever queued
+  private static final List<PlayEvent> END_OF_EVENTS = List.of();
+  private final PlayRenderer target;
+  private final BlockingQueue<List<PlayEvent>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+  private List<PlayEvent> batch = new ArrayList<>(BATCH_SIZE);
+  private Thread consumer = null;
+  private volatile Throwable failure = null;
+  private volatile boolean aborted = false;
+
+  /**
+   * Constructor.
+   *
+   * @param renderer Renderer to hand the play over to.
+   */
+  public PipelinedRenderer(PlayRenderer renderer) {
+    target = renderer;
+  }
+
+  @Override
+  public void addCharacter(String name, String description) {
+    target.addCharacter(name, description);
+  }
+
+  @Override
+  public void begin(String title, String author, PlayOptions options) {
+    // The options are copied, as they are read from the rendering thread from now on
+    target.begin(title, author, new PlayOptions(options));
+    consumer = new Thread(this::consume, "playwriter-renderer");
+    consumer.setDaemon(true);
+    consumer.start();
+  }
+
+  @Override
+  public void newLine() {
+    add(PlayEvent.newLine());
+  }
+
+  @Override
+  public void newPage() {
+    add(PlayEvent.newPage());
+  }
+
+  @Override
+  public void act(int number, String description) {
+    add(PlayEvent.act(number, description));
+  }
+
+  @Override
+  public void scene(int number, String description) {
+    add(PlayEvent.scene(number, description));
+  }
+
+  @Override
+  public void speech(int characterId, String text, boolean offStage, boolean writeCharName,
+                     boolean hasLeadingWhitespaces) {
+    add(PlayEvent.speech(characterId, text, offStage, writeCharName, hasLeadingWhitespaces));
+  }
+
+  @Override
+  public void stageDirections(String text) {
+    add(PlayEvent.stageDirections(text));
+  }
+
+  @Override
+  public void resetWidth() {
+    add(PlayEvent.resetWidth());
+  }
+
+  @Override
+  public void curtain() {
+    add(PlayEvent.curtain());
+  }
+
+  @Override
+  public void end() {
+    add(PlayEvent.end());
+  }
+
+  /**
+   * Waits for all the events to be rendered, and closes the target renderer. A runtime exception
+   * or an error thrown on the rendering thread is thrown again here.
+   *
+   * @throws IOException if the target renderer failed to write an event, or to close.
+   */
+  @Override
+  public void close() throws IOException {
+    if (consumer != null) {
+      if (!batch.isEmpty()) {
+        put(batch);
+      }
+      put(END_OF_EVENTS);
+      join();
+    }
+
+    final Throwable error = failure;
+    if (error instanceof IOException e) {
+      throw e;
+    } else if (error instanceof RuntimeException e) {
+      throw e;
+    } else if (error instanceof Error e) {
+      throw e;
+    }
+    target.close();
+  }
+
+  /**
+   * Drops the events not rendered yet, and aborts the target renderer.
+   */
+  @Override
+  public void abort() {
+    if (consumer != null) {
+      aborted = true;
+      consumer.interrupt();
+      join();
+    }
+    target.abort();
+  }
+
+  /**
+   * Records an event, and queues the current batch once it is full.
+   *
+   * @param event Event to record.
+   */
+  private void add(PlayEvent event) {
+    batch.add(event);
+    if (batch.size() == BATCH_SIZE) {
+      put(batch);
+      batch = new ArrayList<>(BATCH_SIZE);
+    }
+  }
+
+  /**
+   * Queues a batch of events, waiting for room in the queue if needed.
+   *
+   * @param events Batch of events.
+   * @throws IllegalStateException if the calling thread was interrupted while waiting.
+   */
+  private void put(List<PlayEvent> events) {
+    try {
+      queue.put(events);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Error: interrupted while queueing the play.", e);
+    }
+  }
+
+  /**
+   * Waits for the rendering thread to finish. An interruption of the calling thread does not stop
+   * the wait, but is kept for the caller to see afterwards.
+   */
+  private void join() {
+    boolean interrupted = false;
+    while (consumer.isAlive()) {
+      try {
+        consumer.join();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Renders the queued events until the end of the play. After a failure, the remaining events
+   * are still taken from the queue but dropped, so that the reading side never waits forever.
+   */
+  private void consume() {
+    try {
+      List<PlayEvent> events;
+      while ((events = queue.take()) != END_OF_EVENTS) {
+        if (failure != null || aborted) {
+          continue;
+        }
+
+        try {
+          for (PlayEvent event : events) {
+            event.renderTo(target);
+          }
+        } catch (Throwable e) {
+          // Even an error is only recorded, so that the queue keeps being drained
+          failure = e;
+        }
+      }
+    } catch (InterruptedException ignored) {
+      // Only interrupted when the play is aborted
+    }
+  }
+}
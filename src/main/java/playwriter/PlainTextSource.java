@@ -0,0 +1,310 @@
+package playwriter;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Represents a plain text play file, read line by line. The file is memory-mapped and decoded in
+ * large chunks into a reusable buffer, and lines are returned as views into that buffer. Plays in
+ * memory are read the same way from a stream or a {@link Reader}, without mapping.
+ *
+ * <p>The charset is either given explicitly, or found from the byte order mark of the file.
+ * Files without a byte order mark are read as UTF-8. Malformed input is replaced rather than
+ * rejected, as the platform reader used to do.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class PlainTextSource implements LineSource {
+  private static final long MAP_SIZE = 1L << 26;
+  private static final int CHUNK_SIZE = 1 << 16;
+  // A code point decodes to at most two chars
+  private static final int MIN_FREE_CHARS = 2;
+  private static final byte[] UTF_8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+  private static final byte[] UTF_16LE_BOM = {(byte) 0xFF, (byte) 0xFE};
+  private static final byte[] UTF_16BE_BOM = {(byte) 0xFE, (byte) 0xFF};
+  private static final char BOM = '\uFEFF';
+  private final FileChannel channel;
+  private final Reader reader;
+  private final long fileSize;
+  private final CharsetDecoder decoder;
+  private ByteBuffer bytes;
+  private long windowStart;
+  private char[] chars = new char[CHUNK_SIZE];
+  private CharBuffer target = CharBuffer.wrap(chars);
+  private CharBuffer line = CharBuffer.wrap(chars);
+  private int start = 0;
+  private int scan = 0;
+  private int end = 0;
+  private boolean endOfInput = false;
+
+  /**
+   * Constructor. The charset is found from the byte order mark, and defaults to UTF-8.
+   *
+   * @param fileName Name of the file to read.
+   * @throws IOException if the file could not be opened.
+   */
+  public PlainTextSource(String fileName) throws IOException {
+    this(fileName, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param fileName Name of the file to read.
+   * @param charset  Charset of the file, or <code>null</code> to find it from the byte order mark,
+   *                 and default to UTF-8.
+   * @throws IOException if the file could not be opened.
+   */
+  public PlainTextSource(String fileName, Charset charset) throws IOException {
+    channel = FileChannel.open(Path.of(fileName), StandardOpenOption.READ);
+    reader = null;
+    try {
+      fileSize = channel.size();
+      map(0);
+
+      final Encoding encoding = detectEncoding(charset);
+      bytes.position(encoding.bomLength());
+      decoder = encoding.decoder();
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Constructor reading a stream. The charset is found from the byte order mark, and defaults to
+   * UTF-8.
+   *
+   * @param input   Stream to read, closed with the source.
+   * @param charset Charset of the stream, or <code>null</code> to find it from the byte order
+   *                mark, and default to UTF-8.
+   * @throws IOException if the stream could not be read.
+   */
+  public PlainTextSource(InputStream input, Charset charset) throws IOException {
+    channel = null;
+    fileSize = 0;
+    decoder = null;
+
+    BufferedInputStream buffered = new BufferedInputStream(input);
+    buffered.mark(UTF_8_BOM.length);
+    final byte[] head = buffered.readNBytes(UTF_8_BOM.length);
+    buffered.reset();
+    bytes = ByteBuffer.wrap(head);
+
+    final Encoding encoding = detectEncoding(charset);
+    buffered.skipNBytes(encoding.bomLength());
+    reader = new InputStreamReader(buffered, encoding.decoder());
+  }
+
+  /**
+   * Constructor reading already decoded text. A leading byte order mark is skipped.
+   *
+   * @param input Reader to read, closed with the source.
+   * @throws IOException if the reader could not be read.
+   */
+  public PlainTextSource(Reader input) throws IOException {
+    channel = null;
+    fileSize = 0;
+    decoder = null;
+
+    PushbackReader pushback = new PushbackReader(input);
+    final int first = pushback.read();
+    if (first != -1 && first != BOM) {
+      pushback.unread(first);
+    }
+    reader = pushback;
+  }
+
+  @Override
+  public CharSequence nextLine() throws IOException {
+    while (true) {
+      int i = scan;
+      for (; i < end; ++i) {
+        char c = chars[i];
+        if (c != '\n' && c != '\r') {
+          continue;
+        }
+        if (c == '\r' && i + 1 == end && !endOfInput) {
+          // A line feed may follow in the next chunk
+          break;
+        }
+
+        setLine(start, i);
+        start = (c == '\r' && i + 1 < end && chars[i + 1] == '\n') ? i + 2 : i + 1;
+        scan = start;
+        return line;
+      }
+
+      scan = i;
+      if (endOfInput) {
+        if (start == end) {
+          return null;
+        }
+        setLine(start, end);
+        start = end;
+        scan = end;
+        return line;
+      }
+      fill();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (channel != null) {
+      channel.close();
+    } else {
+      reader.close();
+    }
+  }
+
+  /**
+   * Sets the line view to a range of the buffer.
+   *
+   * @param from Start of the line, inclusive.
+   * @param to   End of the line, exclusive.
+   */
+  private void setLine(int from, int to) {
+    line.clear();
+    line.position(from);
+    line.limit(to);
+  }
+
+  /**
+   * Decodes the next chunk of the file. The unread part of the buffer is first moved to its start,
+   * and the buffer is grown if a single line leaves less room than a surrogate pair, so that the
+   * next character always fits.
+   *
+   * @throws IOException if the file could not be read.
+   */
+  private void fill() throws IOException {
+    if (start > 0) {
+      System.arraycopy(chars, start, chars, 0, end - start);
+      scan -= start;
+      end -= start;
+      start = 0;
+    }
+    if (chars.length - end < MIN_FREE_CHARS) {
+      char[] larger = new char[chars.length * 2];
+      System.arraycopy(chars, 0, larger, 0, end);
+      chars = larger;
+      target = CharBuffer.wrap(chars);
+      line = CharBuffer.wrap(chars);
+    }
+
+    if (reader != null) {
+      final int count = reader.read(chars, end, chars.length - end);
+      if (count < 0) {
+        endOfInput = true;
+      } else {
+        end += count;
+      }
+      return;
+    }
+
+    target.clear();
+    target.position(end);
+    while (true) {
+      boolean lastWindow = windowStart + bytes.limit() == fileSize;
+      CoderResult result = decoder.decode(bytes, target, lastWindow);
+      if (result.isOverflow()) {
+        break;
+      }
+      if (lastWindow) {
+        decoder.flush(target);
+        endOfInput = true;
+        break;
+      }
+      map(windowStart + bytes.position());
+      if (target.position() > end) {
+        break;
+      }
+    }
+    end = target.position();
+  }
+
+  /**
+   * Maps the next window of the file.
+   *
+   * @param position Position in the file of the start of the window.
+   * @throws IOException if the file could not be mapped.
+   */
+  private void map(long position) throws IOException {
+    windowStart = position;
+    bytes = channel.map(FileChannel.MapMode.READ_ONLY, position,
+        Math.min(MAP_SIZE, fileSize - position));
+  }
+
+  /**
+   * Finds how to decode the file, or the stream, from the byte order mark its head starts with, if
+   * any. The byte order mark is only skipped if it matches the charset decoded with.
+   *
+   * @param charset Charset given, or <code>null</code> to use the one of the byte order mark, and
+   *                default to UTF-8.
+   * @return Decoder, and length of the byte order mark to skip.
+   */
+  private Encoding detectEncoding(Charset charset) {
+    Charset bomCharset = null;
+    int bomLength = 0;
+    if (startsWith(UTF_8_BOM)) {
+      bomCharset = StandardCharsets.UTF_8;
+      bomLength = UTF_8_BOM.length;
+    } else if (startsWith(UTF_16LE_BOM)) {
+      bomCharset = StandardCharsets.UTF_16LE;
+      bomLength = UTF_16LE_BOM.length;
+    } else if (startsWith(UTF_16BE_BOM)) {
+      bomCharset = StandardCharsets.UTF_16BE;
+      bomLength = UTF_16BE_BOM.length;
+    }
+
+    if (charset == null) {
+      charset = (bomCharset == null) ? StandardCharsets.UTF_8 : bomCharset;
+    }
+    CharsetDecoder charsetDecoder = charset.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    return new Encoding(charsetDecoder, charset.equals(bomCharset) ? bomLength : 0);
+  }
+
+  /**
+   * Checks whether the file, or the head of the stream, starts with a byte order mark.
+   *
+   * @param bom Byte order mark.
+   * @return <code>true</code> if it does, <code>false</code> otherwise.
+   */
+  private boolean startsWith(byte[] bom) {
+    if (bytes.limit() < bom.length) {
+      return false;
+    }
+    for (int i = 0; i < bom.length; ++i) {
+      if (bytes.get(i) != bom[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Represents how a file, or a stream, is decoded.
+   *
+   * @param decoder   Decoder of its charset.
+   * @param bomLength Length of the byte order mark to skip, or <code>0</code> if none.
+   */
+  private record Encoding(CharsetDecoder decoder, int bomLength) {
+  }
+}
@@ -1,14 +1,5 @@
 package playwriter;
 
-import static com.itextpdf.io.font.constants.StandardFonts.TIMES_BOLD;
-import static com.itextpdf.io.font.constants.StandardFonts.TIMES_ITALIC;
-import static com.itextpdf.io.font.constants.StandardFonts.TIMES_ROMAN;
-import static com.itextpdf.kernel.font.PdfFontFactory.createFont;
-import static com.itextpdf.layout.borders.Border.NO_BORDER;
-import static com.itextpdf.layout.properties.TextAlignment.CENTER;
-import static com.itextpdf.layout.properties.TextAlignment.JUSTIFIED;
-import static com.itextpdf.layout.properties.TextAlignment.RIGHT;
-import static com.itextpdf.layout.properties.VerticalAlignment.MIDDLE;
 import static playwriter.Utils.ARG_SEPARATOR;
 import static playwriter.Utils.INDENTED_SPEECH_START;
 import static playwriter.Utils.MAX_PADDING_SIZE;
@@ -20,74 +11,54 @@ import static playwriter.Utils.convertToInt;
 import static playwriter.Utils.failWith;
 import static playwriter.Utils.isKeyword;
 
-import com.itextpdf.kernel.font.PdfFont;
-import com.itextpdf.kernel.geom.Rectangle;
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.PdfWriter;
-import com.itextpdf.layout.Document;
-import com.itextpdf.layout.Style;
-import com.itextpdf.layout.element.AreaBreak;
-import com.itextpdf.layout.element.Cell;
-import com.itextpdf.layout.element.Paragraph;
-import com.itextpdf.layout.element.Table;
-import com.itextpdf.layout.element.Text;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 /**
- * Represents a play.
+ * Represents a play. This holds the state of the play and performs all the checks, while the
+ * output is left to a {@link PlayRenderer}.
  *
  * @author Nicolas Almerge
  * @since 1.0
  */
 public final class Play {
-  private static final String OFFSTAGE_TEXT = " (offstage)";
-  private final Map<String, Character> characters = new HashMap<>();
-  private final String fileName;
-  private final PdfFont normalFont = createFont(TIMES_ROMAN);
-  private final PdfFont boldFont = createFont(TIMES_BOLD);
-  private final PdfFont italicFont = createFont(TIMES_ITALIC);
-  private final Style normalFontStyle = new Style().setFont(normalFont);
-  private final Style boldFontStyle = new Style().setFont(boldFont);
-  private final Style italicFontStyle = new Style().setFont(italicFont);
-  private final Rectangle pageSize;
+  private final SymbolTable symbols = new SymbolTable();
+  private final List<Character> cast = new ArrayList<>();
+  private final BitSet onStage = new BitSet();
+  private final BitSet mentioned = new BitSet();
+  private final PlayOptions options = new PlayOptions();
+  private final PlayRenderer renderer;
   private String title = "";
   private String author = "";
   private boolean hasBegun = false;
   private boolean hasEnded = false;
-  private boolean lastIsStageDir = false;
   private boolean outsideAct = true;
   private boolean outsideScene = true;
   private int actNumber = 0;
   private int sceneNumber = 0;
-  private int textSize = 11;
-  private int sceneSize = 13;
-  private int actSize = 18;
-  private int authorSize = 15;
-  private int titleSize = 24;
-  private int speechPadding = 6;
-  private Document document;
-  private float padding = 0;
-  private float lastWidth = 0;
+  private boolean lastIsSpeech = false;
   private boolean hasTalked = false;
 
   /**
-   * Constructor.
+   * Constructor writing the play to a PDF file.
    *
    * @param outputFileName Output file name.
    * @throws IOException if file loading failed.
    */
   public Play(String outputFileName) throws IOException {
-    fileName = outputFileName;
-    PdfDocument pdf = new PdfDocument(new PdfWriter(new FileOutputStream(fileName)));
-    pdf.getDocumentInfo().setCreator(Utils.getPdfContentCreator());
-    pageSize = pdf.addNewPage().getPageSize();
-    document = new Document(pdf);
+    this(new PdfRenderer(outputFileName));
+  }
+
+  /**
+   * Constructor with a renderer.
+   *
+   * @param playRenderer Renderer to write the play with.
+   */
+  public Play(PlayRenderer playRenderer) {
+    renderer = playRenderer;
   }
 
   /**
@@ -96,7 +67,7 @@ public final class Play {
    * @return {@link List} of all {@link Character}.
    */
   public List<Character> getCharacters() {
-    return new ArrayList<>(characters.values());
+    return new ArrayList<>(cast);
   }
 
   /**
@@ -105,22 +76,18 @@ public final class Play {
    * @throws IOException if writer is closed.
    */
   public void newLine() throws IOException {
-    try (PdfWriter writer = getPdfDoc().getWriter()) {
-      writer.writeNewLine();
-    }
-    lastIsStageDir = false;
+    renderer.newLine();
   }
 
   /**
    * Adds a new page.
    */
   public void newPage() {
-    document.add(new AreaBreak());
-    lastIsStageDir = false;
+    renderer.newPage();
   }
 
   /**
-   * Sets the play title. This also writes it in the PDF metadata.
+   * Sets the play title.
    *
    * @param newTitle New title.
    * @throws PlayCompileTimeError if play title is already set or <code>newTitle</code> is empty.
@@ -129,11 +96,10 @@ public final class Play {
     check(title.isEmpty(), "play title cannot be reset");
     check(!newTitle.isEmpty(), "play title is empty");
     title = newTitle;
-    getPdfDoc().getDocumentInfo().setTitle(title);
   }
 
   /**
-   * Sets the play author. This also writes it in the PDF metadata.
+   * Sets the play author.
    *
    * @param newAuthor New title.
    * @throws PlayCompileTimeError if play author is already set or <code>newAuthor</code> is empty.
@@ -142,7 +108,6 @@ public final class Play {
     check(author.isEmpty(), "play author cannot be reset");
     check(!newAuthor.isEmpty(), "play author is empty");
     author = newAuthor;
-    getPdfDoc().getDocumentInfo().setAuthor(author);
   }
 
   /**
@@ -158,23 +123,7 @@ public final class Play {
         "cannot begin a play with no title or author defined");
     check(hasCharacters(), "cannot begin a play with no characters defined");
     hasBegun = true;
-
-    final float height = getPageHeight();
-    Cell cell = new Cell();
-    cell.add(new Paragraph(new Text(title).addStyle(boldFontStyle)).setFontSize(titleSize)
-        .setTextAlignment(CENTER)).setMinHeight(height).setVerticalAlignment(MIDDLE);
-    cell.add(new Paragraph(new Text(author).addStyle(normalFontStyle)).setFontSize(authorSize)
-        .setTextAlignment(CENTER)).setMinHeight(height).setVerticalAlignment(MIDDLE);
-    document.add(cell);
-
-    for (String name : characters.keySet()) {
-      float size = (float) Math.ceil(
-          boldFont.getWidth(name, textSize) + italicFont.getWidth(OFFSTAGE_TEXT, textSize)
-      );
-      if (size > padding) {
-        padding = size;
-      }
-    }
+    renderer.begin(title, author, options);
   }
 
   /**
@@ -192,13 +141,16 @@ public final class Play {
 
     check(!name.isEmpty(), "character name not found");
     check(!isKeyword(name), "cannot define character '" + name + "' as it is a special keyword");
-    check(characters.get(name) == null, "character '" + name + "' has already been defined");
+    check(symbols.find(name) == -1, "character '" + name + "' has already been defined");
     check(description == null || !description.isEmpty(),
         "character description empty (consider removing the '" + ARG_SEPARATOR
             + "' character if you don't want any description)"
     );
 
-    characters.put(name, new Character(name, description));
+    final int id = symbols.add(name);
+    Character c = new Character(id, name, description, onStage);
+    cast.add(c);
+    renderer.addCharacter(name, c.getDescription());
   }
 
   /**
@@ -207,7 +159,7 @@ public final class Play {
    * @return <code>true</code> if the play has characters, <code>false</code> otherwise.
    */
   public boolean hasCharacters() {
-    return !characters.isEmpty();
+    return !cast.isEmpty();
   }
 
   /**
@@ -229,14 +181,14 @@ public final class Play {
     check(!value.isEmpty(), "option value cannot be empty");
 
     switch (name) {
-      case "TEXT SIZE" -> textSize = convertFontToInt(value);
-      case "SCENE SIZE" -> sceneSize = convertFontToInt(value);
-      case "ACT SIZE" -> actSize = convertFontToInt(value);
-      case "AUTHOR SIZE" -> authorSize = convertFontToInt(value);
-      case "TITLE SIZE" -> titleSize = convertFontToInt(value);
-      case "SPEECH PADDING" -> speechPadding = convertToInt(
+      case "TEXT SIZE" -> options.setTextSize(convertFontToInt(value));
+      case "SCENE SIZE" -> options.setSceneSize(convertFontToInt(value));
+      case "ACT SIZE" -> options.setActSize(convertFontToInt(value));
+      case "AUTHOR SIZE" -> options.setAuthorSize(convertFontToInt(value));
+      case "TITLE SIZE" -> options.setTitleSize(convertFontToInt(value));
+      case "SPEECH PADDING" -> options.setSpeechPadding(convertToInt(
           value, MIN_PADDING_SIZE, MAX_PADDING_SIZE
-      );
+      ));
       default -> failWith("unknown option name '" + name);
     }
 
@@ -261,7 +213,7 @@ public final class Play {
     String description = pair.getSecondArgument();
     check(!numberText.isEmpty(), "act number cannot be empty");
 
-    int value = convertFontToInt(numberText);
+    int value = convertToInt(numberText, 1, Integer.MAX_VALUE);
     check(actNumber + 1 == value,
         actNumber > 0 ? "cannot switch from act number " + actNumber + " to act number " + value :
             "first act must be number 1, not " + value);
@@ -271,24 +223,9 @@ public final class Play {
 
     ++actNumber;
     sceneNumber = 0;
-    if (actNumber > 1) {
-      newPage();
-    }
-
-    Paragraph p = new Paragraph().setFontSize(actSize).setTextAlignment(CENTER);
-    if (description == null) {
-      p.add(new Text("ACT " + actNumber).addStyle(boldFontStyle));
-    } else {
-      p.add(
-          new Text((actNumber == 1 ? "" : "\n") + "ACT " + actNumber + ": " + description).addStyle(
-              boldFontStyle
-          ));
-    }
-
-    document.add(p);
+    renderer.act(actNumber, description);
     outsideAct = false;
-    lastWidth = 0;
-    lastIsStageDir = false;
+    lastIsSpeech = false;
   }
 
   /**
@@ -309,7 +246,7 @@ public final class Play {
     check(!outsideAct, "cannot define a new scene outside an act");
     check(!numberText.isEmpty(), "scene number cannot be empty");
 
-    int value = convertFontToInt(numberText);
+    int value = convertToInt(numberText, 1, Integer.MAX_VALUE);
     check(sceneNumber + 1 == value, sceneNumber > 0
         ? "cannot switch from scene number " + sceneNumber + " to scene number " + value :
         "first scene of each act must be number 1, not " + value);
@@ -318,65 +255,58 @@ public final class Play {
             + "' character if you don't want any description)");
 
     ++sceneNumber;
-
-    Paragraph p = new Paragraph().setFontSize(sceneSize).setTextAlignment(CENTER);
-    if (description == null) {
-      p.add(new Text("SCENE " + sceneNumber).addStyle(boldFontStyle));
-    } else {
-      p.add(new Text(
-          (sceneNumber == 1 ? "" : "\n") + "SCENE " + sceneNumber + ": " + description).addStyle(
-          boldFontStyle
-      ));
-    }
-
-    document.add(p);
+    renderer.scene(sceneNumber, description);
     outsideScene = false;
-    lastWidth = 0;
-    lastIsStageDir = false;
+    lastIsSpeech = false;
   }
 
   /**
    * Parses action.
    *
-   * @param lp          Line parser.
+   * @param lexer       Line lexer, at the first argument of the action.
    * @param function    Function to execute with some characters.
    * @param functionAll Function to execute with all characters.
    * @throws PlayCompileTimeError if parsing failed.
    */
-  public void parseAction(LineParser lp, PlayAction function, PlayAction functionAll)
+  public void parseAction(LineLexer lexer, PlayAction function, PlayAction functionAll)
       throws PlayCompileTimeError {
     checkInsideScene();
-    String arg = lp.getFirstArgument().toUpperCase();
     boolean isAll;
     List<Character> inclusions = new ArrayList<>();
+    mentioned.clear();
 
-    if (arg.equals("ALL")) {
+    if (lexer.firstKeyword() == Keyword.ALL) {
       isAll = true;
-      lp.getNextArgument(); // Remove the "ALL" keyword
+      lexer.skipArgument(); // Remove the "ALL" keyword
 
       // If nothing left, no exceptions
-      if (lp.consumed()) {
+      if (lexer.consumed()) {
         functionAll.execute(inclusions);
         return;
       }
 
       // Else we must have an "EXCEPT"
-      arg = lp.getNextArgument().toUpperCase();
-      check(arg.equals("EXCEPT"), "can only use 'EXCEPT' after the 'ALL' keyword");
+      check(lexer.firstKeyword() == Keyword.EXCEPT,
+          "can only use 'EXCEPT' after the 'ALL' keyword");
+      lexer.skipArgument();
     } else {
       isAll = false;
-      check(!arg.equals("EXCEPT"), "'EXCEPT' can only be used after the 'ALL' keyword");
+      check(lexer.firstKeyword() != Keyword.EXCEPT,
+          "'EXCEPT' can only be used after the 'ALL' keyword");
     }
 
-    while (!lp.consumed()) {
-      arg = lp.getNextArgument(VALUE_SEPARATOR).toUpperCase();
-      check(!arg.isEmpty(),
+    while (!lexer.consumed()) {
+      lexer.nextArgument(VALUE_SEPARATOR);
+      check(!lexer.tokenIsEmpty(),
           "cannot have blank spaces between '" + VALUE_SEPARATOR + "' characters");
-      check(!arg.equals("ALL") && !arg.equals("EXCEPT"),
-          "'" + arg + "' is a reserved keyword that cannot be interpreted as a play character");
+      final Keyword keyword = lexer.tokenKeyword();
+      check(keyword != Keyword.ALL && keyword != Keyword.EXCEPT, "'" + lexer.getUpperCaseToken()
+          + "' is a reserved keyword that cannot be interpreted as a play character");
 
-      Character c = findCharacter(arg);
-      check(!inclusions.contains(c), "character '" + c.getName() + "' mentionned twice or more");
+      Character c = findCharacter(lexer);
+      check(!mentioned.get(c.getId()),
+          "character '" + c.getName() + "' mentionned twice or more");
+      mentioned.set(c.getId());
 
       inclusions.add(c);
     }
@@ -390,6 +320,40 @@ public final class Play {
     }
   }
 
+  /**
+   * Makes all characters enter, except some, as a single operation on the presence bitset.
+   *
+   * @param excluded Characters which do not enter.
+   * @throws PlayCompileTimeError if a character entering is already on stage.
+   */
+  public void enterAllExcept(List<Character> excluded) throws PlayCompileTimeError {
+    BitSet entering = allExcept(excluded);
+    BitSet conflicts = (BitSet) entering.clone();
+    conflicts.and(onStage);
+    if (!conflicts.isEmpty()) {
+      failWith("cannot make character " + cast.get(conflicts.nextSetBit(0)).getName()
+          + " enter as it is already on stage");
+    }
+    onStage.or(entering);
+  }
+
+  /**
+   * Makes all characters exit, except some, as a single operation on the presence bitset.
+   *
+   * @param excluded Characters which do not exit.
+   * @throws PlayCompileTimeError if a character exiting is not on stage.
+   */
+  public void exitAllExcept(List<Character> excluded) throws PlayCompileTimeError {
+    BitSet exiting = allExcept(excluded);
+    BitSet conflicts = (BitSet) exiting.clone();
+    conflicts.andNot(onStage);
+    if (!conflicts.isEmpty()) {
+      failWith("cannot make character " + cast.get(conflicts.nextSetBit(0)).getName()
+          + " exit as it is not on stage");
+    }
+    onStage.andNot(exiting);
+  }
+
   /**
    * Ends an act.
    *
@@ -399,16 +363,11 @@ public final class Play {
     checkInsideScene();
     check(hasTalked, "cannot end a scene where characters didn't talk");
     hasTalked = false;
-    Paragraph p = new Paragraph().setFontSize(textSize);
-    p.add(new Text("\n\0\t\tCURTAIN").addStyle(normalFontStyle));
-    document.add(p);
-    for (Character c : characters.values()) {
-      c.forceExit();
-    }
+    renderer.curtain();
+    onStage.clear();
     outsideAct = true;
     outsideScene = true;
-    lastWidth = 0;
-    lastIsStageDir = false;
+    lastIsSpeech = false;
   }
 
   /**
@@ -419,9 +378,22 @@ public final class Play {
    * @throws PlayCompileTimeError if character could not be found.
    */
   public Character findCharacter(String name) throws PlayCompileTimeError {
-    Character c = characters.get(name);
-    check(c != null, "unknown character '" + name + "'");
-    return c;
+    final int id = symbols.find(name);
+    check(id != -1, "unknown character '" + name + "'");
+    return cast.get(id);
+  }
+
+  /**
+   * Finds a character with name equal to the current token of a line lexer, ignoring case.
+   *
+   * @param lexer Line lexer, with the name as its current token.
+   * @return Character with corresponding name.
+   * @throws PlayCompileTimeError if character could not be found.
+   */
+  public Character findCharacter(LineLexer lexer) throws PlayCompileTimeError {
+    final int id = lexer.findToken(symbols);
+    check(id != -1, "unknown character '" + lexer.getUpperCaseToken() + "'");
+    return cast.get(id);
   }
 
   /**
@@ -445,35 +417,16 @@ public final class Play {
         String.format("cannot make character '%s' speak offstage as is it onstage", c.getName()));
     hasTalked = true;
 
-    final float leftPadding = getPageWidth() - padding;
-    Table table = new Table(new float[] {padding, leftPadding});
-    Paragraph p = new Paragraph().setFontSize(textSize);
-    if (writeCharName) {
-      p.add(new Text(c.getName()).addStyle(boldFontStyle));
-      if (offStage) {
-        p.add(new Text(OFFSTAGE_TEXT).addStyle(italicFontStyle));
-      }
-    } else {
+    if (!writeCharName) {
       check(!hasLeadingWhitespaces, "cannot use '" + INDENTED_SPEECH_START
           + "' with same play character as in the previous speech");
     }
-
-    float newWidth = (normalFont.getWidth(text, textSize) + speechPadding) % leftPadding;
-    Paragraph cont = new Paragraph(new Text(text).addStyle(normalFontStyle)).setFontSize(textSize);
     if (hasLeadingWhitespaces) {
-      check(lastWidth > 0, "can only use '" + INDENTED_SPEECH_START + "' after another speech");
-      newWidth += lastWidth;
-      newWidth %= leftPadding;
-      cont.setFirstLineIndent(lastWidth);
+      check(lastIsSpeech, "can only use '" + INDENTED_SPEECH_START + "' after another speech");
     }
 
-    table.addCell(new Cell().setPaddingLeft(0).setPaddingRight(0).setBorder(NO_BORDER).add(p)
-        .setTextAlignment(RIGHT));
-    table.addCell(new Cell().setPaddingLeft(speechPadding).setBorder(NO_BORDER).add(cont)
-        .setTextAlignment(JUSTIFIED));
-    document.add(table);
-    lastWidth = newWidth;
-    lastIsStageDir = false;
+    renderer.speech(c.getId(), text, offStage, writeCharName, hasLeadingWhitespaces);
+    lastIsSpeech = true;
   }
 
   /**
@@ -484,15 +437,8 @@ public final class Play {
    */
   public void writeStageDirections(String text) throws PlayCompileTimeError {
     checkBetweenBeginAndEnd();
-    Paragraph p = new Paragraph().setFontSize(textSize);
-    if (!lastIsStageDir) {
-      p.setPaddingTop(textSize * (float) 0.75);
-    }
-    p.setPaddingBottom(textSize * (float) 0.75);
-    p.add(new Text("\0\t\t" + text).addStyle(italicFontStyle));
-    document.add(p);
-    lastWidth = 0;
-    lastIsStageDir = true;
+    renderer.stageDirections(text);
+    lastIsSpeech = false;
   }
 
   /**
@@ -506,50 +452,49 @@ public final class Play {
     check(!hasEnded, "cannot use the 'END' keyword twice or more");
 
     hasEnded = true;
-    lastIsStageDir = false;
-
-    Paragraph p = new Paragraph().setFontSize(textSize).setTextAlignment(CENTER);
-    p.add(new Text("\n\0\nTHE END").addStyle(boldFontStyle));
-    document.add(p);
+    renderer.end();
   }
 
   /**
-   * Outputs the PDF file.
+   * Outputs the play through its renderer.
    *
+   * @throws IOException          if the output could not be written.
    * @throws PlayCompileTimeError if play has not begun or ended.
    */
-  public void outputPlay() throws PlayCompileTimeError {
+  public void outputPlay() throws IOException, PlayCompileTimeError {
     check(hasBegun, "cannot output a play that has not begun");
     check(hasEnded, "cannot output a play that has not ended");
-    document.close();
+    renderer.close();
   }
 
   /**
-   * Closes the PDF with a fail message.
+   * Closes the output of a play which failed, leaving an output file as it was before the play.
    */
-  public void closePdfWithFailMessage() {
-    document.close();
-    try {
-      PdfDocument pdf = new PdfDocument(new PdfWriter(new FileOutputStream(fileName)));
-      pdf.addNewPage();
-      pdf.getDocumentInfo().setCreator(Utils.getPdfContentCreator());
-      document = new Document(pdf);
-      final String error = "\n\n\n\n\n\n\n\nThe play generation failed due to a compilation error.";
-      Paragraph p = new Paragraph(
-          new Text(error).addStyle(new Style().setFont(createFont(TIMES_BOLD)))
-      ).setFontSize(28).setTextAlignment(CENTER);
-      document.add(p);
-      document.close();
-    } catch (IOException e) {
-      // Ignore case where document closing failed
-    }
+  public void abort() {
+    renderer.abort();
   }
 
   /**
    * Resets the width to <code>0</code>.
    */
   public void resetWidth() {
-    lastWidth = 0;
+    renderer.resetWidth();
+    lastIsSpeech = false;
+  }
+
+  /**
+   * Gets the ids of all characters, except some.
+   *
+   * @param excluded Characters to leave out.
+   * @return {@link BitSet} of the ids of the other characters.
+   */
+  private BitSet allExcept(List<Character> excluded) {
+    BitSet ids = new BitSet(cast.size());
+    ids.set(0, cast.size());
+    for (Character c : excluded) {
+      ids.clear(c.getId());
+    }
+    return ids;
   }
 
   /**
@@ -571,31 +516,4 @@ public final class Play {
     checkBetweenBeginAndEnd();
     check(!outsideScene, "cannot write stage directions or dialog outside acts or scenes");
   }
-
-  /**
-   * Gets the PDF document.
-   *
-   * @return PDF document.
-   */
-  private PdfDocument getPdfDoc() {
-    return document.getPdfDocument();
-  }
-
-  /**
-   * Computes the page width.
-   *
-   * @return Page width.
-   */
-  private float getPageWidth() {
-    return pageSize.getWidth() - document.getLeftMargin() - document.getRightMargin();
-  }
-
-  /**
-   * Computes the page height.
-   *
-   * @return Page height.
-   */
-  private float getPageHeight() {
-    return pageSize.getHeight() - document.getTopMargin() - document.getBottomMargin();
-  }
 }
@@ -0,0 +1,81 @@
+package playwriter;
+
+import java.util.List;
+
+/**
+ * Represents an act of a {@link PlayScript}, as a range of its events. The range starts with the
+ * {@link PlayEventType#ACT} event, and ends after its {@link PlayEventType#CURTAIN} event.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class PlayAct {
+  private final int number;
+  private final String description;
+  private final int start;
+  private final int end;
+  private final List<PlayScene> scenes;
+
+  /**
+   * Constructor.
+   *
+   * @param actNumber      Act number.
+   * @param actDescription Act description, or <code>null</code> if none.
+   * @param startIndex     Index of the first event of the act.
+   * @param endIndex       Index after the last event of the act.
+   * @param actScenes      Scenes of the act.
+   */
+  public PlayAct(int actNumber, String actDescription, int startIndex, int endIndex,
+                 List<PlayScene> actScenes) {
+    number = actNumber;
+    description = actDescription;
+    start = startIndex;
+    end = endIndex;
+    scenes = List.copyOf(actScenes);
+  }
+
+  /**
+   * Gets the act number.
+   *
+   * @return Act number.
+   */
+  public int getNumber() {
+    return number;
+  }
+
+  /**
+   * Gets the act description.
+   *
+   * @return Act description, or <code>null</code> if none.
+   */
+  public String getDescription() {
+    return description;
+  }
+
+  /**
+   * Gets the index of the first event of the act.
+   *
+   * @return Index of the first event.
+   */
+  public int getStart() {
+    return start;
+  }
+
+  /**
+   * Gets the index after the last event of the act.
+   *
+   * @return Index after the last event.
+   */
+  public int getEnd() {
+    return end;
+  }
+
+  /**
+   * Gets the scenes of the act.
+   *
+   * @return Unmodifiable {@link List} of scenes.
+   */
+  public List<PlayScene> getScenes() {
+    return scenes;
+  }
+}
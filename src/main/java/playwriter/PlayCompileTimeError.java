@@ -1,16 +1,22 @@
 package playwriter;
 
 /**
- * Represents a play-compile time error.
+ * Represents a play-compile time error. Errors are raised without any position, and are given the
+ * position of the line being compiled by the {@link FileParser} they go through.
  *
  * @author Nicolas Almerge
  * @since 1.0
  */
 public final class PlayCompileTimeError extends Exception {
   /**
-   * Error message.
+   * Error message, without any position.
    */
-  private final String message;
+  private final String errorMessage;
+
+  /**
+   * Line at which the error happened, or <code>0</code> if unknown.
+   */
+  private int lineNumber = 0;
 
   /**
    * Constructor.
@@ -18,11 +24,43 @@ public final class PlayCompileTimeError extends Exception {
    * @param errorMsg Error message.
    */
   public PlayCompileTimeError(String errorMsg) {
-    message = "Error at line " + Counter.getLineNumber() + ": " + errorMsg + '.';
+    errorMessage = errorMsg;
+  }
+
+  /**
+   * Positions this error at the current line of a compilation, unless it already has a position.
+   * The error itself is returned, so that its stack trace and cause are kept when thrown again.
+   *
+   * @param context Context of the compilation.
+   * @return This error.
+   */
+  public PlayCompileTimeError at(CompilationContext context) {
+    if (lineNumber == 0) {
+      lineNumber = context.getLineNumber();
+    }
+    return this;
+  }
+
+  /**
+   * Gets the line at which the error happened.
+   *
+   * @return Line number, or <code>0</code> if unknown.
+   */
+  public int getLineNumber() {
+    return lineNumber;
+  }
+
+  /**
+   * Gets the error message, without any position.
+   *
+   * @return Error message.
+   */
+  public String getErrorMessage() {
+    return errorMessage;
   }
 
   @Override
   public String getMessage() {
-    return message;
+    return "Error at line " + lineNumber + ": " + errorMessage + '.';
   }
 }
@@ -0,0 +1,146 @@
+package playwriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import org.apache.poi.poifs.filesystem.FileMagic;
+
+/**
+ * Represents a compiler of plays held in memory or received over the network, reading them from
+ * streams and writing their PDF to a stream, without any file.
+ *
+ * <p>A compiler only holds its settings, so it is thread-safe and can be shared by any number of
+ * concurrent compilations. The fonts and glyph widths are loaded once per JVM and shared by all
+ * documents, so every compilation after the first one starts warm.
+ *
+ * <p>Both streams are closed once the play is compiled. If the play is invalid, nothing is written
+ * to the output in {@link RenderMode#SEQUENTIAL} and {@link RenderMode#PARALLEL_ACTS}, so a
+ * response can still report the error. In {@link RenderMode#PIPELINED}, the pages laid out until
+ * the error have already been written.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class PlayCompiler {
+  private final Charset charset;
+  private final RenderMode renderMode;
+  private final ActMerger actMerger;
+
+  /**
+   * Constructor. Plain text plays are read as UTF-8, unless they start with a byte order mark,
+   * and are laid out while they are parsed.
+   */
+  public PlayCompiler() {
+    this(null, RenderMode.PIPELINED, null);
+  }
+
+  /**
+   * Constructor with all the settings.
+   *
+   * @param textCharset Charset of plain text plays, or <code>null</code> to find it from their
+   *                    byte order mark and default to UTF-8.
+   * @param mode        Way each play is laid out into its PDF.
+   * @param merger      Writer of the acts in {@link RenderMode#PARALLEL_ACTS}, or
+   *                    <code>null</code> to create one for this compiler, with one thread per
+   *                    core and no cache.
+   */
+  public PlayCompiler(Charset textCharset, RenderMode mode, ActMerger merger) {
+    charset = textCharset;
+    renderMode = mode;
+    // Shared by all the compilations, so that they do not each start their own threads
+    actMerger = (mode == RenderMode.PARALLEL_ACTS && merger == null)
+        ? new ActMerger(Runtime.getRuntime().availableProcessors()) : merger;
+  }
+
+  /**
+   * Compiles a play read from a stream.
+   *
+   * @param input  Play to compile.
+   * @param format Format of the play.
+   * @param output Output PDF stream.
+   * @throws IOException              if reading or writing failed.
+   * @throws PlayCompileTimeError     if the play is invalid.
+   * @throws IllegalArgumentException if the play is blank.
+   */
+  public void compile(InputStream input, SourceFormat format, OutputStream output)
+      throws IOException, PlayCompileTimeError {
+    run(new FileParser(openSource(input, format), output, renderMode, actMerger));
+  }
+
+  /**
+   * Compiles a plain text play read from already decoded text.
+   *
+   * @param input  Play to compile.
+   * @param output Output PDF stream.
+   * @throws IOException              if reading or writing failed.
+   * @throws PlayCompileTimeError     if the play is invalid.
+   * @throws IllegalArgumentException if the play is blank.
+   */
+  public void compile(Reader input, OutputStream output) throws IOException, PlayCompileTimeError {
+    run(new FileParser(new PlainTextSource(input), output, renderMode, actMerger));
+  }
+
+  /**
+   * Checks a play read from a stream, without laying it out.
+   *
+   * @param input  Play to check.
+   * @param format Format of the play.
+   * @throws IOException              if reading failed.
+   * @throws PlayCompileTimeError     if the play is invalid.
+   * @throws IllegalArgumentException if the play is blank.
+   */
+  public void check(InputStream input, SourceFormat format)
+      throws IOException, PlayCompileTimeError {
+    run(new FileParser(openSource(input, format), new NoOpRenderer()));
+  }
+
+  /**
+   * Checks a plain text play read from already decoded text, without laying it out.
+   *
+   * @param input Play to check.
+   * @throws IOException              if reading failed.
+   * @throws PlayCompileTimeError     if the play is invalid.
+   * @throws IllegalArgumentException if the play is blank.
+   */
+  public void check(Reader input) throws IOException, PlayCompileTimeError {
+    run(new FileParser(new PlainTextSource(input), new NoOpRenderer()));
+  }
+
+  /**
+   * Parses and outputs a play, closing its source and output if it fails.
+   *
+   * @param fp Parser of the play.
+   * @throws IOException          if reading or writing failed.
+   * @throws PlayCompileTimeError if the play is invalid.
+   */
+  private static void run(FileParser fp) throws IOException, PlayCompileTimeError {
+    try {
+      fp.parseAll();
+      fp.output();
+    } catch (IOException | PlayCompileTimeError | RuntimeException e) {
+      fp.abort();
+      throw e;
+    }
+  }
+
+  /**
+   * Opens the source of a play read from a stream. Word documents are told apart from their
+   * content, as for files.
+   *
+   * @param input  Play stream.
+   * @param format Format of the play.
+   * @return Source of the lines of the play.
+   * @throws IOException if the stream could not be read.
+   */
+  private LineSource openSource(InputStream input, SourceFormat format) throws IOException {
+    if (format == SourceFormat.PLAIN_TEXT) {
+      return new PlainTextSource(input, charset);
+    }
+
+    final InputStream stream = FileMagic.prepareToCheckMagic(input);
+    return (FileMagic.valueOf(stream) == FileMagic.OLE2) ? new DocSource(stream)
+        : new DocxSource(stream);
+  }
+}
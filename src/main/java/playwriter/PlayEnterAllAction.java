@@ -24,7 +24,6 @@ public final class PlayEnterAllAction implements PlayAction {
   @Override
   public void execute(List<Character> characters) throws PlayCompileTimeError {
     List<String> names = new ArrayList<>();
-    List<Character> remaining = play.getCharacters();
 
     for (Character c : characters) {
       Utils.check(
@@ -32,12 +31,9 @@ public final class PlayEnterAllAction implements PlayAction {
           "cannot exclude character '" + c.getName() + "' since it has already entered"
       );
       names.add(c.getName());
-      remaining.remove(c);
     }
 
-    for (Character c : remaining) {
-      c.enter();
-    }
+    play.enterAllExcept(characters);
 
     if (names.size() == 0) {
       play.writeStageDirections("ENTER ALL");
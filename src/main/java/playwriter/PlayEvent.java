@@ -0,0 +1,222 @@
+package playwriter;
+
+import java.io.IOException;
+
+/**
+ * Represents an immutable event of a play, such as a speech or a new scene. Events only hold
+ * already validated content.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class PlayEvent {
+  private static final int OFFSTAGE = 1;
+  private static final int WRITE_CHAR_NAME = 2;
+  private static final int LEADING_WHITESPACES = 4;
+  private static final PlayEvent NEW_LINE = new PlayEvent(PlayEventType.NEW_LINE, 0, null, 0);
+  private static final PlayEvent NEW_PAGE = new PlayEvent(PlayEventType.NEW_PAGE, 0, null, 0);
+  private static final PlayEvent RESET_WIDTH =
+      new PlayEvent(PlayEventType.RESET_WIDTH, 0, null, 0);
+  private static final PlayEvent CURTAIN = new PlayEvent(PlayEventType.CURTAIN, 0, null, 0);
+  private static final PlayEvent END = new PlayEvent(PlayEventType.END, 0, null, 0);
+  private final PlayEventType type;
+  private final int value;
+  private final String text;
+  private final int flags;
+
+  /**
+   * Constructor.
+   *
+   * @param eventType  Event type.
+   * @param eventValue Act or scene number, or character id.
+   * @param eventText  Description or text, if any.
+   * @param eventFlags Speech flags.
+   */
+  private PlayEvent(PlayEventType eventType, int eventValue, String eventText, int eventFlags) {
+    type = eventType;
+    value = eventValue;
+    text = eventText;
+    flags = eventFlags;
+  }
+
+  /**
+   * Gets a new line event.
+   *
+   * @return New line event.
+   */
+  public static PlayEvent newLine() {
+    return NEW_LINE;
+  }
+
+  /**
+   * Gets a new page event.
+   *
+   * @return New page event.
+   */
+  public static PlayEvent newPage() {
+    return NEW_PAGE;
+  }
+
+  /**
+   * Gets an act event.
+   *
+   * @param number      Act number.
+   * @param description Act description, or <code>null</code> if none.
+   * @return Act event.
+   */
+  public static PlayEvent act(int number, String description) {
+    return new PlayEvent(PlayEventType.ACT, number, description, 0);
+  }
+
+  /**
+   * Gets a scene event.
+   *
+   * @param number      Scene number.
+   * @param description Scene description, or <code>null</code> if none.
+   * @return Scene event.
+   */
+  public static PlayEvent scene(int number, String description) {
+    return new PlayEvent(PlayEventType.SCENE, number, description, 0);
+  }
+
+  /**
+   * Gets a speech event.
+   *
+   * @param characterId           Id of the character speaking, in the play's cast.
+   * @param text                  Text of the speech.
+   * @param offStage              Whether the character is offstage.
+   * @param writeCharName         Whether to write the character's name before the text.
+   * @param hasLeadingWhitespaces Whether to indent the text after the previous speech.
+   * @return Speech event.
+   */
+  public static PlayEvent speech(int characterId, String text, boolean offStage,
+                                 boolean writeCharName, boolean hasLeadingWhitespaces) {
+    int flags = (offStage ? OFFSTAGE : 0) | (writeCharName ? WRITE_CHAR_NAME : 0)
+        | (hasLeadingWhitespaces ? LEADING_WHITESPACES : 0);
+    return new PlayEvent(PlayEventType.SPEECH, characterId, text, flags);
+  }
+
+  /**
+   * Gets a stage directions event.
+   *
+   * @param text Stage directions.
+   * @return Stage directions event.
+   */
+  public static PlayEvent stageDirections(String text) {
+    return new PlayEvent(PlayEventType.STAGE_DIRECTIONS, 0, text, 0);
+  }
+
+  /**
+   * Gets a width reset event.
+   *
+   * @return Width reset event.
+   */
+  public static PlayEvent resetWidth() {
+    return RESET_WIDTH;
+  }
+
+  /**
+   * Gets a curtain event.
+   *
+   * @return Curtain event.
+   */
+  public static PlayEvent curtain() {
+    return CURTAIN;
+  }
+
+  /**
+   * Gets an end event.
+   *
+   * @return End event.
+   */
+  public static PlayEvent end() {
+    return END;
+  }
+
+  /**
+   * Gets the event type.
+   *
+   * @return Event type.
+   */
+  public PlayEventType getType() {
+    return type;
+  }
+
+  /**
+   * Gets the act or scene number of an {@link PlayEventType#ACT} or {@link PlayEventType#SCENE}
+   * event.
+   *
+   * @return Act or scene number.
+   */
+  public int getNumber() {
+    return value;
+  }
+
+  /**
+   * Gets the id of the character speaking in a {@link PlayEventType#SPEECH} event.
+   *
+   * @return Character id.
+   */
+  public int getCharacterId() {
+    return value;
+  }
+
+  /**
+   * Gets the text of the event: the description of an act or scene, the text of a speech or the
+   * stage directions.
+   *
+   * @return Event text, or <code>null</code> if none.
+   */
+  public String getText() {
+    return text;
+  }
+
+  /**
+   * Checks whether the character speaks offstage.
+   *
+   * @return <code>true</code> if the character speaks offstage, <code>false</code> otherwise.
+   */
+  public boolean isOffStage() {
+    return (flags & OFFSTAGE) != 0;
+  }
+
+  /**
+   * Checks whether the character's name is written before the speech.
+   *
+   * @return <code>true</code> if the name is written, <code>false</code> otherwise.
+   */
+  public boolean writesCharName() {
+    return (flags & WRITE_CHAR_NAME) != 0;
+  }
+
+  /**
+   * Checks whether the speech is indented after the previous speech.
+   *
+   * @return <code>true</code> if the speech is indented, <code>false</code> otherwise.
+   */
+  public boolean hasLeadingWhitespaces() {
+    return (flags & LEADING_WHITESPACES) != 0;
+  }
+
+  /**
+   * Sends the event to a renderer.
+   *
+   * @param renderer Renderer to send the event to.
+   * @throws IOException if the renderer failed to write the event.
+   */
+  public void renderTo(PlayRenderer renderer) throws IOException {
+    switch (type) {
+      case NEW_LINE -> renderer.newLine();
+      case NEW_PAGE -> renderer.newPage();
+      case ACT -> renderer.act(value, text);
+      case SCENE -> renderer.scene(value, text);
+      case SPEECH -> renderer.speech(value, text, isOffStage(),
+          writesCharName(), hasLeadingWhitespaces());
+      case STAGE_DIRECTIONS -> renderer.stageDirections(text);
+      case RESET_WIDTH -> renderer.resetWidth();
+      case CURTAIN -> renderer.curtain();
+      case END -> renderer.end();
+      default -> throw new IllegalStateException("unknown event type " + type);
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package playwriter;
+
+/**
+ * Represents the type of a {@link PlayEvent}.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public enum PlayEventType {
+  /**
+   * New line ('NEWLINE').
+   */
+  NEW_LINE,
+
+  /**
+   * New page ('NEWPAGE').
+   */
+  NEW_PAGE,
+
+  /**
+   * Start of an act ('ACT').
+   */
+  ACT,
+
+  /**
+   * Start of a scene ('SCENE').
+   */
+  SCENE,
+
+  /**
+   * Speech of a character.
+   */
+  SPEECH,
+
+  /**
+   * Stage directions, including those written for 'ENTER' and 'EXIT'.
+   */
+  STAGE_DIRECTIONS,
+
+  /**
+   * Reset of the previous speech width ('ONSTAGE').
+   */
+  RESET_WIDTH,
+
+  /**
+   * End of an act ('CURTAIN').
+   */
+  CURTAIN,
+
+  /**
+   * End of the play ('THE END').
+   */
+  END
+}
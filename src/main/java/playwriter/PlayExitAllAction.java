@@ -24,18 +24,14 @@ public final class PlayExitAllAction implements PlayAction {
   @Override
   public void execute(List<Character> characters) throws PlayCompileTimeError {
     List<String> names = new ArrayList<>();
-    List<Character> remaining = play.getCharacters();
 
     for (Character c : characters) {
       Utils.check(c.hasEntered(),
           "cannot exclude character '" + c.getName() + "' since it has already exited");
       names.add(c.getName());
-      remaining.remove(c);
     }
 
-    for (Character c : remaining) {
-      c.exit();
-    }
+    play.exitAllExcept(characters);
 
     if (names.size() == 0) {
       play.writeStageDirections("EXIT ALL");
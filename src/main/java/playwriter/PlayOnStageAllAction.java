@@ -22,19 +22,14 @@ public final class PlayOnStageAllAction implements PlayAction {
 
   @Override
   public void execute(List<Character> characters) throws PlayCompileTimeError {
-    List<Character> remaining = play.getCharacters();
-
     for (Character c : characters) {
       Utils.check(
           !c.hasEntered(),
           "cannot exclude character '" + c.getName() + "' since it has already entered"
       );
-      remaining.remove(c);
     }
 
-    for (Character c : remaining) {
-      c.enter();
-    }
+    play.enterAllExcept(characters);
 
     play.resetWidth();
   }
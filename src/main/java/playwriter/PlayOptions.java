@@ -0,0 +1,144 @@
+package playwriter;
+
+/**
+ * Represents the options of a play, set in its 'OPTIONS' header.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class PlayOptions {
+  private int textSize = 11;
+  private int sceneSize = 13;
+  private int actSize = 18;
+  private int authorSize = 15;
+  private int titleSize = 24;
+  private int speechPadding = 6;
+
+  /**
+   * Constructor with default values.
+   */
+  public PlayOptions() {
+  }
+
+  /**
+   * Copy constructor.
+   *
+   * @param other Options to copy.
+   */
+  public PlayOptions(PlayOptions other) {
+    textSize = other.textSize;
+    sceneSize = other.sceneSize;
+    actSize = other.actSize;
+    authorSize = other.authorSize;
+    titleSize = other.titleSize;
+    speechPadding = other.speechPadding;
+  }
+
+  /**
+   * Gets the font size of speeches and stage directions.
+   *
+   * @return Text font size.
+   */
+  public int getTextSize() {
+    return textSize;
+  }
+
+  /**
+   * Sets the font size of speeches and stage directions.
+   *
+   * @param size New text font size.
+   */
+  public void setTextSize(int size) {
+    textSize = size;
+  }
+
+  /**
+   * Gets the font size of scene titles.
+   *
+   * @return Scene font size.
+   */
+  public int getSceneSize() {
+    return sceneSize;
+  }
+
+  /**
+   * Sets the font size of scene titles.
+   *
+   * @param size New scene font size.
+   */
+  public void setSceneSize(int size) {
+    sceneSize = size;
+  }
+
+  /**
+   * Gets the font size of act titles.
+   *
+   * @return Act font size.
+   */
+  public int getActSize() {
+    return actSize;
+  }
+
+  /**
+   * Sets the font size of act titles.
+   *
+   * @param size New act font size.
+   */
+  public void setActSize(int size) {
+    actSize = size;
+  }
+
+  /**
+   * Gets the font size of the author on the title page.
+   *
+   * @return Author font size.
+   */
+  public int getAuthorSize() {
+    return authorSize;
+  }
+
+  /**
+   * Sets the font size of the author on the title page.
+   *
+   * @param size New author font size.
+   */
+  public void setAuthorSize(int size) {
+    authorSize = size;
+  }
+
+  /**
+   * Gets the font size of the title on the title page.
+   *
+   * @return Title font size.
+   */
+  public int getTitleSize() {
+    return titleSize;
+  }
+
+  /**
+   * Sets the font size of the title on the title page.
+   *
+   * @param size New title font size.
+   */
+  public void setTitleSize(int size) {
+    titleSize = size;
+  }
+
+  /**
+   * Gets the padding between character names and their speeches.
+   *
+   * @return Speech padding.
+   */
+  public int getSpeechPadding() {
+    return speechPadding;
+  }
+
+  /**
+   * Sets the padding between character names and their speeches.
+   *
+   * @param padding New speech padding.
+   */
+  public void setSpeechPadding(int padding) {
+    speechPadding = padding;
+  }
+}
@@ -0,0 +1,105 @@
+package playwriter;
+
+import java.io.IOException;
+
+/**
+ * Represents the output of a play. {@link Play} performs all the checks, and only calls its
+ * renderer with valid content.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public interface PlayRenderer {
+
+  /**
+   * Adds a character to the play, before it begins. Characters are given ids in the order they
+   * are added, starting at <code>0</code>.
+   *
+   * @param name        Character name.
+   * @param description Character description, or an empty {@link String} if none.
+   */
+  void addCharacter(String name, String description);
+
+  /**
+   * Begins the play, once all headers are known.
+   *
+   * @param title   Play title.
+   * @param author  Play author.
+   * @param options Play options.
+   */
+  void begin(String title, String author, PlayOptions options);
+
+  /**
+   * Writes a new line.
+   *
+   * @throws IOException if writer is closed.
+   */
+  void newLine() throws IOException;
+
+  /**
+   * Adds a new page.
+   */
+  void newPage();
+
+  /**
+   * Writes the title of a new act.
+   *
+   * @param number      Act number.
+   * @param description Act description, or <code>null</code> if none.
+   */
+  void act(int number, String description);
+
+  /**
+   * Writes the title of a new scene.
+   *
+   * @param number      Scene number.
+   * @param description Scene description, or <code>null</code> if none.
+   */
+  void scene(int number, String description);
+
+  /**
+   * Writes a speech.
+   *
+   * @param characterId           Id of the character speaking.
+   * @param text                  Text to write.
+   * @param offStage              Whether the character is offstage.
+   * @param writeCharName         Whether to write the character's name before the text.
+   * @param hasLeadingWhitespaces Whether to indent the text after the previous speech.
+   */
+  void speech(int characterId, String text, boolean offStage, boolean writeCharName,
+              boolean hasLeadingWhitespaces);
+
+  /**
+   * Writes stage directions.
+   *
+   * @param text Text to write.
+   */
+  void stageDirections(String text);
+
+  /**
+   * Resets the width of the previous speech, so that the next speech is not indented.
+   */
+  void resetWidth();
+
+  /**
+   * Ends an act.
+   */
+  void curtain();
+
+  /**
+   * Ends the play.
+   */
+  void end();
+
+  /**
+   * Closes the output once the play has ended.
+   *
+   * @throws IOException if the output could not be written.
+   */
+  void close() throws IOException;
+
+  /**
+   * Closes the output of a play which failed. An output file is left as it was before the play.
+   */
+  void abort();
+}
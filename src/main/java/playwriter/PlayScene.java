@@ -0,0 +1,66 @@
+package playwriter;
+
+/**
+ * Represents a scene of a {@link PlayScript}, as a range of its events. The range starts with the
+ * {@link PlayEventType#SCENE} event, and ends before the next scene or the 'CURTAIN' of its act.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class PlayScene {
+  private final int number;
+  private final String description;
+  private final int start;
+  private final int end;
+
+  /**
+   * Constructor.
+   *
+   * @param sceneNumber      Scene number.
+   * @param sceneDescription Scene description, or <code>null</code> if none.
+   * @param startIndex       Index of the first event of the scene.
+   * @param endIndex         Index after the last event of the scene.
+   */
+  public PlayScene(int sceneNumber, String sceneDescription, int startIndex, int endIndex) {
+    number = sceneNumber;
+    description = sceneDescription;
+    start = startIndex;
+    end = endIndex;
+  }
+
+  /**
+   * Gets the scene number.
+   *
+   * @return Scene number.
+   */
+  public int getNumber() {
+    return number;
+  }
+
+  /**
+   * Gets the scene description.
+   *
+   * @return Scene description, or <code>null</code> if none.
+   */
+  public String getDescription() {
+    return description;
+  }
+
+  /**
+   * Gets the index of the first event of the scene.
+   *
+   * @return Index of the first event.
+   */
+  public int getStart() {
+    return start;
+  }
+
+  /**
+   * Gets the index after the last event of the scene.
+   *
+   * @return Index after the last event.
+   */
+  public int getEnd() {
+    return end;
+  }
+}
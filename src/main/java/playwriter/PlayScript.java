@@ -0,0 +1,158 @@
+package playwriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents an immutable, already validated play: its headers, its cast and its events, grouped
+ * into acts and scenes. A script is produced once by parsing, and can then be rendered any number
+ * of times by any {@link PlayRenderer}.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class PlayScript {
+  private final String title;
+  private final String author;
+  private final PlayOptions options;
+  private final String[] characterNames;
+  private final String[] characterDescriptions;
+  private final List<PlayEvent> events;
+  private final List<PlayAct> acts;
+
+  /**
+   * Constructor.
+   *
+   * @param playTitle    Play title.
+   * @param playAuthor   Play author.
+   * @param playOptions  Play options.
+   * @param names        Character names, indexed by character id.
+   * @param descriptions Character descriptions, indexed by character id.
+   * @param playEvents   Events of the play, from 'BEGIN' to 'THE END'.
+   * @param playActs     Acts of the play.
+   */
+  public PlayScript(String playTitle, String playAuthor, PlayOptions playOptions, String[] names,
+                    String[] descriptions, PlayEvent[] playEvents, List<PlayAct> playActs) {
+    title = playTitle;
+    author = playAuthor;
+    options = new PlayOptions(playOptions);
+    characterNames = names.clone();
+    characterDescriptions = descriptions.clone();
+    events = Collections.unmodifiableList(Arrays.asList(playEvents.clone()));
+    acts = List.copyOf(playActs);
+  }
+
+  /**
+   * Gets the play title.
+   *
+   * @return Play title.
+   */
+  public String getTitle() {
+    return title;
+  }
+
+  /**
+   * Gets the play author.
+   *
+   * @return Play author.
+   */
+  public String getAuthor() {
+    return author;
+  }
+
+  /**
+   * Gets a copy of the play options.
+   *
+   * @return Play options.
+   */
+  public PlayOptions getOptions() {
+    return new PlayOptions(options);
+  }
+
+  /**
+   * Gets the number of characters.
+   *
+   * @return Number of characters.
+   */
+  public int getCharacterCount() {
+    return characterNames.length;
+  }
+
+  /**
+   * Gets the name of a character.
+   *
+   * @param id Character id.
+   * @return Character name.
+   */
+  public String getCharacterName(int id) {
+    return characterNames[id];
+  }
+
+  /**
+   * Gets the description of a character.
+   *
+   * @param id Character id.
+   * @return Character description, or an empty {@link String} if none.
+   */
+  public String getCharacterDescription(int id) {
+    return characterDescriptions[id];
+  }
+
+  /**
+   * Gets all the events of the play.
+   *
+   * @return Unmodifiable {@link List} of events.
+   */
+  public List<PlayEvent> getEvents() {
+    return events;
+  }
+
+  /**
+   * Gets the acts of the play.
+   *
+   * @return Unmodifiable {@link List} of acts.
+   */
+  public List<PlayAct> getActs() {
+    return acts;
+  }
+
+  /**
+   * Sends the headers of the play to a renderer, and begins it.
+   *
+   * @param renderer Renderer to send the headers to.
+   */
+  public void renderHeaders(PlayRenderer renderer) {
+    for (int i = 0; i < characterNames.length; ++i) {
+      renderer.addCharacter(characterNames[i], characterDescriptions[i]);
+    }
+    renderer.begin(title, author, getOptions());
+  }
+
+  /**
+   * Sends a range of events to a renderer.
+   *
+   * @param renderer Renderer to send the events to.
+   * @param start    Index of the first event.
+   * @param end      Index after the last event.
+   * @throws IOException if the renderer failed to write an event.
+   */
+  public void renderEvents(PlayRenderer renderer, int start, int end) throws IOException {
+    for (int i = start; i < end; ++i) {
+      events.get(i).renderTo(renderer);
+    }
+  }
+
+  /**
+   * Sends the whole play to a renderer, and closes it.
+   *
+   * @param renderer Renderer to send the play to.
+   * @throws IOException if the renderer failed to write the play.
+   */
+  public void render(PlayRenderer renderer) throws IOException {
+    renderHeaders(renderer);
+    renderEvents(renderer, 0, events.size());
+    renderer.close();
+  }
+}
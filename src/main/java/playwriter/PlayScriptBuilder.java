@@ -0,0 +1,139 @@
+package playwriter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a renderer which records a play into a {@link PlayScript}, instead of writing it.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class PlayScriptBuilder implements PlayRenderer {
+  private final List<String> names = new ArrayList<>();
+  private final List<String> descriptions = new ArrayList<>();
+  private final List<PlayEvent> events = new ArrayList<>();
+  private final List<PlayAct> acts = new ArrayList<>();
+  private final List<PlayScene> scenes = new ArrayList<>();
+  private String title;
+  private String author;
+  private PlayOptions options;
+  private int actNumber = 0;
+  private String actDescription = null;
+  private int actStart = -1;
+  private int sceneNumber = 0;
+  private String sceneDescription = null;
+  private int sceneStart = -1;
+  private PlayScript script = null;
+
+  /**
+   * Constructor.
+   */
+  public PlayScriptBuilder() {
+  }
+
+  /**
+   * Gets the recorded play.
+   *
+   * @return Recorded play.
+   * @throws IllegalStateException if the play has not been fully recorded.
+   */
+  public PlayScript getScript() {
+    if (script == null) {
+      throw new IllegalStateException("Error: play has not been fully recorded.");
+    }
+    return script;
+  }
+
+  @Override
+  public void addCharacter(String name, String description) {
+    names.add(name);
+    descriptions.add(description);
+  }
+
+  @Override
+  public void begin(String playTitle, String playAuthor, PlayOptions playOptions) {
+    title = playTitle;
+    author = playAuthor;
+    options = new PlayOptions(playOptions);
+  }
+
+  @Override
+  public void newLine() {
+    events.add(PlayEvent.newLine());
+  }
+
+  @Override
+  public void newPage() {
+    events.add(PlayEvent.newPage());
+  }
+
+  @Override
+  public void act(int number, String description) {
+    actNumber = number;
+    actDescription = description;
+    actStart = events.size();
+    events.add(PlayEvent.act(number, description));
+  }
+
+  @Override
+  public void scene(int number, String description) {
+    closeScene();
+    sceneNumber = number;
+    sceneDescription = description;
+    sceneStart = events.size();
+    events.add(PlayEvent.scene(number, description));
+  }
+
+  @Override
+  public void speech(int characterId, String text, boolean offStage, boolean writeCharName,
+                     boolean hasLeadingWhitespaces) {
+    events.add(
+        PlayEvent.speech(characterId, text, offStage, writeCharName, hasLeadingWhitespaces)
+    );
+  }
+
+  @Override
+  public void stageDirections(String text) {
+    events.add(PlayEvent.stageDirections(text));
+  }
+
+  @Override
+  public void resetWidth() {
+    events.add(PlayEvent.resetWidth());
+  }
+
+  @Override
+  public void curtain() {
+    closeScene();
+    events.add(PlayEvent.curtain());
+    acts.add(new PlayAct(actNumber, actDescription, actStart, events.size(), scenes));
+    scenes.clear();
+    actStart = -1;
+  }
+
+  @Override
+  public void end() {
+    events.add(PlayEvent.end());
+  }
+
+  @Override
+  public void close() {
+    script = new PlayScript(title, author, options, names.toArray(new String[0]),
+        descriptions.toArray(new String[0]), events.toArray(new PlayEvent[0]), acts);
+  }
+
+  @Override
+  public void abort() {
+  }
+
+  /**
+   * Closes the current scene, if any.
+   */
+  private void closeScene() {
+    if (sceneStart != -1) {
+      scenes.add(new PlayScene(sceneNumber, sceneDescription, sceneStart, events.size()));
+      sceneStart = -1;
+    }
+  }
+}
@@ -0,0 +1,241 @@
+package playwriter;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Represents a watcher, which compiles play files again with a {@link BatchCompiler} whenever
+ * they are saved.
+ *
+ * <p>The directories of the plays are registered with a {@link WatchService}. Editors usually
+ * save a file with several events (truncate, write, rename), so a file is only compiled once it has
+ * not changed for a short delay. Compilations run on a pool of worker threads, in the same JVM for
+ * the whole session: the fonts and caches stay loaded, and only the saved files are compiled.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class PlayWatcher {
+  private static final long DEBOUNCE_MILLIS = 100;
+  private final BatchCompiler compiler;
+  private final int jobs;
+  private final WatchService watchService;
+  private final Map<WatchKey, Path> directories = new HashMap<>();
+  private final Set<Path> watchedTrees = new HashSet<>();
+  private final Set<Path> watchedFiles = new HashSet<>();
+  private final Map<Path, Long> pending = new HashMap<>();
+  private final Set<Path> compiling = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Constructor. Directories are watched recursively for files accepted by
+   * {@link Utils#isPlayFile(String)}, including directories created later, and files are watched
+   * as is.
+   *
+   * @param batchCompiler Compiler of the saved files.
+   * @param jobCount      Number of files compiled at the same time.
+   * @param paths         Files and directories to watch.
+   * @throws IOException              if a path does not exist, or could not be watched.
+   * @throws IllegalArgumentException if <code>jobCount</code> is not positive.
+   */
+  public PlayWatcher(BatchCompiler batchCompiler, int jobCount, List<Path> paths)
+      throws IOException {
+    if (jobCount < 1) {
+      throw new IllegalArgumentException("Error: job count must be positive.");
+    }
+    compiler = batchCompiler;
+    jobs = jobCount;
+    watchService = FileSystems.getDefault().newWatchService();
+
+    try {
+      for (Path path : paths) {
+        final Path absolute = path.toAbsolutePath().normalize();
+        if (Files.isDirectory(absolute)) {
+          watchedTrees.add(absolute);
+          registerTree(absolute);
+        } else if (Files.exists(absolute)) {
+          watchedFiles.add(absolute);
+          register(absolute.getParent());
+        } else {
+          throw new IOException("file '" + path + "' does not exist");
+        }
+      }
+    } catch (IOException e) {
+      watchService.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Watches the files until interrupted, and prints the result of each compilation.
+   *
+   * @param out Stream to print to.
+   * @throws InterruptedException if interrupted while waiting for changes.
+   * @throws IOException          if the watch service failed.
+   */
+  public void watch(PrintStream out) throws InterruptedException, IOException {
+    ExecutorService pool = Executors.newFixedThreadPool(jobs);
+    try (watchService) {
+      while (true) {
+        WatchKey key = nextKey();
+        if (key != null) {
+          handleEvents(key);
+        }
+        startDueCompilations(pool, out);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Waits for the next changes, or until the earliest pending file is due.
+   *
+   * @return Key of the changed directory, or <code>null</code> if a pending file is due.
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  private WatchKey nextKey() throws InterruptedException {
+    if (pending.isEmpty()) {
+      return watchService.take();
+    }
+
+    final long now = System.nanoTime();
+    long wait = Long.MAX_VALUE;
+    for (long due : pending.values()) {
+      wait = Math.min(wait, due - now);
+    }
+    return (wait > 0) ? watchService.poll(wait, TimeUnit.NANOSECONDS) : null;
+  }
+
+  /**
+   * Handles the events of a changed directory: saved play files are delayed until they stop
+   * changing, and new directories are registered.
+   *
+   * @param key Key of the changed directory.
+   * @throws IOException if a new directory could not be registered.
+   */
+  private void handleEvents(WatchKey key) throws IOException {
+    final Path directory = directories.get(key);
+
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == OVERFLOW || directory == null) {
+        continue;
+      }
+
+      final Path file = directory.resolve((Path) event.context());
+      if (event.kind() == ENTRY_CREATE && Files.isDirectory(file) && isInTree(file)) {
+        registerTree(file);
+      } else if (isWatched(file)) {
+        pending.put(file, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DEBOUNCE_MILLIS));
+      }
+    }
+
+    if (!key.reset()) {
+      directories.remove(key);
+    }
+  }
+
+  /**
+   * Submits the compilation of the pending files which have not changed for the delay. A file
+   * still being compiled is delayed again, so that it is never compiled twice at the same time.
+   *
+   * @param pool Worker pool.
+   * @param out  Stream to print to.
+   */
+  private void startDueCompilations(ExecutorService pool, PrintStream out) {
+    final long now = System.nanoTime();
+
+    for (Iterator<Map.Entry<Path, Long>> it = pending.entrySet().iterator(); it.hasNext(); ) {
+      Map.Entry<Path, Long> entry = it.next();
+      final Path file = entry.getKey();
+      if (entry.getValue() - now > 0) {
+        continue;
+      }
+      if (!Files.isRegularFile(file)) {
+        // Deleted, or renamed away, since it changed
+        it.remove();
+      } else if (compiling.add(file)) {
+        it.remove();
+        pool.execute(() -> {
+          try {
+            BatchCompiler.printResult(compiler.compile(file), out);
+          } finally {
+            compiling.remove(file);
+          }
+        });
+      } else {
+        entry.setValue(now + TimeUnit.MILLISECONDS.toNanos(DEBOUNCE_MILLIS));
+      }
+    }
+  }
+
+  /**
+   * Checks whether a changed file must be compiled.
+   *
+   * @param file Changed file.
+   * @return <code>true</code> if the file is watched, <code>false</code> otherwise.
+   */
+  private boolean isWatched(Path file) {
+    return watchedFiles.contains(file)
+        || (isInTree(file) && Utils.isPlayFile(file.getFileName().toString()));
+  }
+
+  /**
+   * Checks whether a path is in a watched directory tree.
+   *
+   * @param path Path.
+   * @return <code>true</code> if the path is in a watched directory, <code>false</code> otherwise.
+   */
+  private boolean isInTree(Path path) {
+    for (Path tree : watchedTrees) {
+      if (path.startsWith(tree)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Registers a directory and all its subdirectories.
+   *
+   * @param root Root directory.
+   * @throws IOException if a directory could not be read or registered.
+   */
+  private void registerTree(Path root) throws IOException {
+    try (Stream<Path> tree = Files.walk(root)) {
+      for (Path directory : (Iterable<Path>) tree.filter(Files::isDirectory)::iterator) {
+        register(directory);
+      }
+    }
+  }
+
+  /**
+   * Registers a directory.
+   *
+   * @param directory Directory.
+   * @throws IOException if the directory could not be registered.
+   */
+  private void register(Path directory) throws IOException {
+    directories.put(directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY), directory);
+  }
+}
@@ -23,17 +23,19 @@ public final class PlayWriter {
   }
 
   /**
-   * Main function.
+   * Main function. Without arguments, a file dialog is shown to pick the play to compile. With
+   * arguments, the program runs headless as a {@link BatchCompiler}.
    *
-   * @param args Not used.
+   * @param args Command-line arguments, see {@link BatchCompiler#run(String[])}.
    */
   public static void main(String[] args) {
+    if (args.length > 0) {
+      System.exit(BatchCompiler.run(args));
+    }
+
     // Display window
     FileDialog dialog = new FileDialog((JFrame) null, "Select Play File");
-    dialog.setFilenameFilter((dir, f) -> {
-      f = f.toLowerCase();
-      return f.endsWith(".docx") || f.endsWith(".doc") || f.endsWith(".play") || f.endsWith(".txt");
-    });
+    dialog.setFilenameFilter((dir, f) -> Utils.isPlayFile(f));
     dialog.setVisible(true);
 
     // Get input file, if exists
@@ -43,18 +45,8 @@ public final class PlayWriter {
     }
 
     // Compute output file name
-    int index = inputFile.lastIndexOf('.');
-    String outputFile;
-    boolean isPlainText;
-
-    if (index == -1) {
-      outputFile = inputFile + ".pdf";
-      isPlainText = true;
-    } else {
-      outputFile = inputFile.substring(0, index) + ".pdf";
-      String extension = inputFile.substring(index + 1).toLowerCase();
-      isPlainText = (extension.equals("txt") || extension.equals("play"));
-    }
+    String outputFile = Utils.getOutputFileName(inputFile);
+    boolean isPlainText = Utils.isPlainTextFile(inputFile);
 
     // Get directory to have absolute paths
     String dir = dialog.getDirectory();
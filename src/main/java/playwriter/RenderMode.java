@@ -0,0 +1,27 @@
+package playwriter;
+
+/**
+ * Represents the way a {@link FileParser} lays out a play into its PDF file. All modes write the
+ * same pages.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public enum RenderMode {
+  /**
+   * The play is parsed into a {@link PlayScript}, which is then laid out on the calling thread.
+   */
+  SEQUENTIAL,
+
+  /**
+   * The play is laid out on its own thread while it is parsed, through a
+   * {@link PipelinedRenderer}.
+   */
+  PIPELINED,
+
+  /**
+   * The play is parsed into a {@link PlayScript}, whose acts are then laid out in parallel and
+   * merged, through an {@link ActMerger}.
+   */
+  PARALLEL_ACTS
+}
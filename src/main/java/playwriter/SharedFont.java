@@ -0,0 +1,87 @@
+package playwriter;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.font.PdfFontFactory.EmbeddingStrategy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Represents a font program loaded once for the whole process, and shared by all the documents
+ * written by it. Each document gets its own cheap {@link PdfFont} handle on the program, as a
+ * {@link PdfFont} belongs to a single document, while the glyph advances are measured once and
+ * shared by all of them.
+ *
+ * <p>This class is thread-safe.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class SharedFont {
+  private static final Map<String, SharedFont> FONTS = new ConcurrentHashMap<>();
+  private static final String DEFAULT_ENCODING = "";
+  private final FontProgram program;
+  private final GlyphWidths widths;
+
+  /**
+   * Constructor.
+   *
+   * @param fontProgram Font program.
+   */
+  private SharedFont(FontProgram fontProgram) {
+    program = fontProgram;
+    widths = new GlyphWidths(createFont(fontProgram));
+  }
+
+  /**
+   * Gets a shared font, loading its program the first time it is asked for.
+   *
+   * @param name Name of the font, as given to {@link PdfFontFactory#createFont(String)}.
+   * @return Shared font.
+   * @throws IOException if the font program could not be loaded.
+   */
+  public static SharedFont get(String name) throws IOException {
+    SharedFont font = FONTS.get(name);
+    if (font != null) {
+      return font;
+    }
+
+    // Loading twice on a race is harmless, and only the first font is kept
+    font = new SharedFont(FontProgramFactory.createFont(name));
+    SharedFont previous = FONTS.putIfAbsent(name, font);
+    return (previous == null) ? font : previous;
+  }
+
+  /**
+   * Creates a handle on the font, for a single document.
+   *
+   * @return Font handle.
+   */
+  public PdfFont createHandle() {
+    return createFont(program);
+  }
+
+  /**
+   * Gets the glyph advances of the font.
+   *
+   * @return Glyph advances.
+   */
+  public GlyphWidths getWidths() {
+    return widths;
+  }
+
+  /**
+   * Creates a {@link PdfFont} on a font program, the same way
+   * {@link PdfFontFactory#createFont(String)} does.
+   *
+   * @param fontProgram Font program.
+   * @return New {@link PdfFont}.
+   */
+  private static PdfFont createFont(FontProgram fontProgram) {
+    return PdfFontFactory.createFont(fontProgram, DEFAULT_ENCODING,
+        EmbeddingStrategy.PREFER_EMBEDDED);
+  }
+}
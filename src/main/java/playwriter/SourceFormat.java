@@ -0,0 +1,29 @@
+package playwriter;
+
+/**
+ * Represents the format of a play read from a stream by a {@link PlayCompiler}.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public enum SourceFormat {
+  /**
+   * Plain text, in a given charset or found from its byte order mark.
+   */
+  PLAIN_TEXT,
+
+  /**
+   * Word document, either <code>.docx</code> or legacy <code>.doc</code>, found from its content.
+   */
+  WORD;
+
+  /**
+   * Gets the format of a play file from its name, as {@link Utils#isPlainTextFile(String)}.
+   *
+   * @param fileName Name of the play file.
+   * @return Format of the file.
+   */
+  public static SourceFormat of(String fileName) {
+    return Utils.isPlainTextFile(fileName) ? PLAIN_TEXT : WORD;
+  }
+}
@@ -0,0 +1,83 @@
+package playwriter;
+
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.properties.Property;
+import com.itextpdf.layout.renderer.DrawContext;
+import com.itextpdf.layout.renderer.IRenderer;
+import com.itextpdf.layout.renderer.ParagraphRenderer;
+
+/**
+ * Represents the renderer of a speech. The text is laid out as a single paragraph, indented past
+ * the gutter, and the character's name is drawn directly on the canvas, right-aligned in the
+ * gutter and on the baseline of the first line. This gives the look of a two-column table, without
+ * laying one out for every speech.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class SpeechRenderer extends ParagraphRenderer {
+  private final float nameOffset;
+  private final PdfFont nameFont;
+  private final String name;
+  private final PdfFont noteFont;
+  private final String note;
+  private boolean continued = false;
+
+  /**
+   * Constructor.
+   *
+   * @param speech   Paragraph of the speech text, with a left margin wider than the gutter.
+   * @param offset   Offset of the name from the left of the paragraph's margin, so that it ends
+   *                 at the right of the gutter.
+   * @param font     Font of the character's name.
+   * @param charName Character's name, or <code>null</code> to leave the gutter empty.
+   * @param aside    Font of the note written after the name.
+   * @param noteText Note written after the name, or <code>null</code> if there is none.
+   */
+  public SpeechRenderer(Paragraph speech, float offset, PdfFont font, String charName,
+                        PdfFont aside, String noteText) {
+    super(speech);
+    nameOffset = offset;
+    nameFont = font;
+    name = charName;
+    noteFont = aside;
+    note = noteText;
+  }
+
+  @Override
+  public IRenderer getNextRenderer() {
+    // Also builds the split renderers, so the middle pieces of a long speech stay continued
+    SpeechRenderer next = new SpeechRenderer((Paragraph) modelElement, nameOffset, nameFont, name,
+        noteFont, note);
+    next.continued = continued;
+    return next;
+  }
+
+  @Override
+  public void drawChildren(DrawContext drawContext) {
+    super.drawChildren(drawContext);
+    if (continued || name == null || lines == null || lines.isEmpty()) {
+      return;
+    }
+
+    final float fontSize = getPropertyAsUnitValue(Property.FONT_SIZE).getValue();
+    PdfCanvas canvas = drawContext.getCanvas();
+    canvas.saveState().beginText().setFontAndSize(nameFont, fontSize)
+        .moveText(occupiedArea.getBBox().getLeft() + nameOffset, lines.get(0).getYLine())
+        .showText(name);
+    if (note != null) {
+      canvas.setFontAndSize(noteFont, fontSize).showText(note);
+    }
+    canvas.endText().restoreState();
+  }
+
+  @Override
+  protected ParagraphRenderer createOverflowRenderer(IRenderer parent) {
+    // The name is only drawn next to the first line, not on the following pages
+    SpeechRenderer overflow = (SpeechRenderer) super.createOverflowRenderer(parent);
+    overflow.continued = true;
+    return overflow;
+  }
+}
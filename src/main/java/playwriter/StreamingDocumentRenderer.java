@@ -0,0 +1,40 @@
+package playwriter;
+
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.renderer.DocumentRenderer;
+import com.itextpdf.layout.renderer.IRenderer;
+
+/**
+ * Represents the renderer of a document written once from top to bottom, whose memory use does not
+ * depend on its length. Each page is flushed to the output, with its content stream, once the
+ * layout moves two pages past it, so at most two pages of layout are held at any time.
+ *
+ * <p>The default renderer also records the page number of every element it draws, so that the
+ * content of a page read from an existing file is only wrapped once. This list is never trimmed,
+ * and grows by one entry per paragraph of the play. The documents written by PlayWriter never read
+ * an existing file, so it is cleared after each element instead.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class StreamingDocumentRenderer extends DocumentRenderer {
+  /**
+   * Constructor.
+   *
+   * @param document Document to lay out, which must not be read from an existing file.
+   */
+  public StreamingDocumentRenderer(Document document) {
+    super(document, true);
+  }
+
+  @Override
+  public IRenderer getNextRenderer() {
+    return new StreamingDocumentRenderer(document);
+  }
+
+  @Override
+  protected void flushSingleRenderer(IRenderer resultRenderer) {
+    super.flushSingleRenderer(resultRenderer);
+    wrappedContentPage.clear();
+  }
+}
@@ -0,0 +1,172 @@
+package playwriter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents the table of character names of a play. It is built once from the
+ * <code>CHARACTERS</code> header, and gives each character a dense id, starting at
+ * <code>0</code> in declaration order.
+ *
+ * <p>Names are stored in upper case, and can be looked up directly from a range of characters
+ * in any case, without creating a {@link String}.
+ *
+ * @author Nicolas Almerge
+ * @since 1.0
+ */
+public final class SymbolTable {
+  private static final boolean ASCII_UPPER_CASE_IS_STANDARD =
+      "abcdefghijklmnopqrstuvwxyz".toUpperCase().equals("ABCDEFGHIJKLMNOPQRSTUVWXYZ");
+  private final List<String> names = new ArrayList<>();
+  private int[] slots = new int[16];
+
+  /**
+   * Constructor.
+   */
+  public SymbolTable() {
+  }
+
+  /**
+   * Adds a name.
+   *
+   * @param name Upper case name.
+   * @return Id of the name, or <code>-1</code> if it was already added.
+   */
+  public int add(String name) {
+    if (find(name) != -1) {
+      return -1;
+    }
+
+    if (2 * (names.size() + 1) > slots.length) {
+      slots = new int[2 * slots.length];
+      for (int id = 0; id < names.size(); ++id) {
+        insert(names.get(id).hashCode(), id);
+      }
+    }
+    insert(name.hashCode(), names.size());
+    names.add(name);
+    return names.size() - 1;
+  }
+
+  /**
+   * Finds the id of a name.
+   *
+   * @param name Upper case name.
+   * @return Id of the name, or <code>-1</code> if not found.
+   */
+  public int find(String name) {
+    int mask = slots.length - 1;
+    for (int slot = spread(name.hashCode()) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+      int id = slots[slot] - 1;
+      if (names.get(id).equals(name)) {
+        return id;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Finds the id of a name written in a range of characters. Case is ignored, the same way
+   * {@link String#toUpperCase()} does.
+   *
+   * @param chars Characters.
+   * @param from  Start of the range, inclusive.
+   * @param to    End of the range, exclusive.
+   * @return Id of the name, or <code>-1</code> if not found.
+   */
+  public int find(char[] chars, int from, int to) {
+    int hash = 0;
+    for (int i = from; i < to; ++i) {
+      char c = chars[i];
+      if (c >= 0x80 || !ASCII_UPPER_CASE_IS_STANDARD) {
+        // Upper case may change the length of the name, or depend on the locale
+        return find(new String(chars, from, to - from).toUpperCase());
+      }
+      hash = 31 * hash + toUpperCase(c);
+    }
+
+    int mask = slots.length - 1;
+    for (int slot = spread(hash) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+      int id = slots[slot] - 1;
+      if (matches(names.get(id), chars, from, to)) {
+        return id;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Gets the name with an id.
+   *
+   * @param id Id of the name.
+   * @return Upper case name.
+   */
+  public String getName(int id) {
+    return names.get(id);
+  }
+
+  /**
+   * Gets the number of names.
+   *
+   * @return Number of names.
+   */
+  public int size() {
+    return names.size();
+  }
+
+  /**
+   * Inserts an id in the first free slot for its hash.
+   *
+   * @param hash Hash of the name.
+   * @param id   Id of the name.
+   */
+  private void insert(int hash, int id) {
+    int mask = slots.length - 1;
+    int slot = spread(hash) & mask;
+    while (slots[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    slots[slot] = id + 1;
+  }
+
+  /**
+   * Checks whether a name is written in a range of ASCII characters.
+   *
+   * @param name  Upper case name.
+   * @param chars Characters.
+   * @param from  Start of the range, inclusive.
+   * @param to    End of the range, exclusive.
+   * @return <code>true</code> if it is, <code>false</code> otherwise.
+   */
+  private static boolean matches(String name, char[] chars, int from, int to) {
+    if (name.length() != to - from) {
+      return false;
+    }
+    for (int i = from; i < to; ++i) {
+      if (toUpperCase(chars[i]) != name.charAt(i - from)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Converts an ASCII character to upper case.
+   *
+   * @param c ASCII character.
+   * @return Upper case character.
+   */
+  private static char toUpperCase(char c) {
+    return (c >= 'a' && c <= 'z') ? (char) (c - 'a' + 'A') : c;
+  }
+
+  /**
+   * Spreads the high bits of a hash to the low bits used to find slots.
+   *
+   * @param hash Hash.
+   * @return Spread hash.
+   */
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+}
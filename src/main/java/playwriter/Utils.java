@@ -83,14 +83,12 @@ public final class Utils {
   public static final int MAX_PADDING_SIZE = 50;
 
   /**
-   * Array of all keywords.
+   * Separators, which are keywords on their own.
    */
-  private static final String[] KEYWORDS = {
-      "ACT", "ASGROUP", "BEGIN", "CURTAIN", "END",
-      "ENTER", "EXCEPT", "EXEUNT", "EXIT", "NEWLINE",
-      "NEWPAGE", "OFFSTAGE", "ONSTAGE", "SCENE", stringOf(ARG_SEPARATOR),
-      stringOf(VALUE_SEPARATOR), stringOf(STAGE_DIR_START), stringOf(INDENTED_SPEECH_START)
-  };
+  private static final String LOCK_FILE_PREFIX = "~$";
+  private static final String SEPARATORS = String.valueOf(
+      new char[] {ARG_SEPARATOR, VALUE_SEPARATOR, STAGE_DIR_START, INDENTED_SPEECH_START}
+  );
 
   /**
    * Private constructor.
@@ -105,12 +103,54 @@ public final class Utils {
    * @return <code>true</code> if <code>value</code> is a keyword, <code>false</code> otherwise.
    */
   public static boolean isKeyword(String value) {
-    for (String keyword : KEYWORDS) {
-      if (value.equals(keyword)) {
-        return true;
-      }
+    if (value.length() == 1 && SEPARATORS.indexOf(value.charAt(0)) != -1) {
+      return true;
     }
-    return false;
+
+    Keyword keyword = Keyword.find(value);
+    return keyword != null && keyword.isReserved() && keyword.name().equals(value);
+  }
+
+  /**
+   * Checks whether a file name has one of the extensions PlayWriter can read (<code>.play</code>,
+   * <code>.txt</code>, <code>.docx</code> or <code>.doc</code>). The lock files Word writes next
+   * to an open document, named after it with a <code>~$</code> prefix, are not plays.
+   *
+   * @param fileName File name to check.
+   * @return <code>true</code> if the file can be compiled, <code>false</code> otherwise.
+   */
+  public static boolean isPlayFile(String fileName) {
+    String name = fileName.toLowerCase();
+    return !name.startsWith(LOCK_FILE_PREFIX) && (name.endsWith(".docx") || name.endsWith(".doc")
+        || name.endsWith(".play") || name.endsWith(".txt"));
+  }
+
+  /**
+   * Checks whether a file should be read as plain text. This is the case for files ending with
+   * <code>.play</code> or <code>.txt</code>, and for files without any extension.
+   *
+   * @param fileName File name to check.
+   * @return <code>true</code> if the file is plain text, <code>false</code> otherwise.
+   */
+  public static boolean isPlainTextFile(String fileName) {
+    int index = fileName.lastIndexOf('.');
+    if (index == -1) {
+      return true;
+    }
+    String extension = fileName.substring(index + 1).toLowerCase();
+    return extension.equals("txt") || extension.equals("play");
+  }
+
+  /**
+   * Gets the output PDF file name of a play file, by replacing its extension with
+   * <code>.pdf</code>.
+   *
+   * @param fileName Input file name.
+   * @return Output file name.
+   */
+  public static String getOutputFileName(String fileName) {
+    int index = fileName.lastIndexOf('.');
+    return (index == -1 ? fileName : fileName.substring(0, index)) + ".pdf";
   }
 
   /**
@@ -213,14 +253,4 @@ public final class Utils {
     // Return value
     return value;
   }
-
-  /**
-   * Gets a {@link String} from a single character.
-   *
-   * @param c Character to convert.
-   * @return {@link String} made of the single <code>c</code> character.
-   */
-  private static String stringOf(char c) {
-    return String.valueOf(c);
-  }
 }